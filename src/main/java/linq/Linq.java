@@ -1,7 +1,27 @@
 package linq;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -10,19 +30,63 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.DoublePredicate;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
 public class Linq<T> {
 	public static final class ArrayFetch<T> extends Fetch<T> {
 		private final T[] array;
@@ -41,29 +105,29 @@ public class Linq<T> {
 			return Holder.none();
 		}
 
+		@Override
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			var count = Math.min(length, array.length - index);
+			System.arraycopy(array, index, batch, offset, count);
+			index += count;
+			return count;
+		}
+
 		@Override
 		protected final void internalClose() {
 		}
 	}
 
-	public static final class CastFetch<T, U> extends Fetch<U> {
+	public static final class AsyncAdapterFetch<T> extends AsyncFetch<T> {
 		private final Fetch<T> fetch;
 
-		public CastFetch(Fetch<T> fetch) {
+		public AsyncAdapterFetch(Fetch<T> fetch) {
 			this.fetch = fetch;
 		}
 
 		@Override
-		protected final Holder<U> internalNext() {
-			var holder = fetch.next();
-
-			if (holder.exists()) {
-				@SuppressWarnings("unchecked")
-				var value = (U) holder.value();
-				return Holder.of(value);
-			}
-
-			return Holder.none();
+		protected final CompletionStage<Holder<T>> internalNextAsync() {
+			return CompletableFuture.completedFuture(fetch.next());
 		}
 
 		@Override
@@ -72,119 +136,171 @@ public class Linq<T> {
 		}
 	}
 
-	public static final class ChunkFetch<T> extends Fetch<List<T>> {
-		private final Fetch<T> fetch;
-		private final int size;
-		private boolean terminated;
+	public static final class AsyncConcatFetch<T> extends AsyncFetch<T> {
+		private final AsyncFetch<T> left;
+		private final AsyncFetch<T> right;
+		private AsyncFetch<T> fetch;
 
-		public ChunkFetch(Fetch<T> fetch, int size) {
-			this.fetch = fetch;
-			this.size = size;
-			this.terminated = false;
+		public AsyncConcatFetch(AsyncFetch<T> left, AsyncFetch<T> right) {
+			this.left = left;
+			this.right = right;
+			this.fetch = left;
 		}
 
 		@Override
-		protected final Holder<List<T>> internalNext() {
-			if (terminated) {
-				return Holder.none();
-			}
+		protected final CompletionStage<Holder<T>> internalNextAsync() {
+			return fetch.nextAsync().thenCompose(holder -> {
+				if (holder.exists() || fetch == right) {
+					return CompletableFuture.completedFuture(holder);
+				}
 
-			var list = new ArrayList<T>();
+				fetch = right;
+				return fetch.nextAsync();
+			});
+		}
 
-			for (var i = 0; i < size; i++) {
-				var current = fetch.next();
+		@Override
+		protected final void internalClose() {
+			try (var _right = right;
+					var _left = left) {
+			}
+		}
+	}
 
-				if (!current.exists()) {
-					terminated = true;
-					break;
-				}
+	public static abstract class AsyncFetch<T> implements AutoCloseable {
+		private boolean closed;
+		private Holder<T> current;
 
-				list.add(current.value());
+		public final CompletionStage<Holder<T>> nextAsync() {
+			if (closed) {
+				return CompletableFuture.failedFuture(new IllegalStateException("already closed"));
 			}
 
-			if (list.isEmpty()) {
-				return Holder.none();
+			CompletionStage<Holder<T>> stage;
+
+			try {
+				stage = internalNextAsync();
+			} catch (RuntimeException e) {
+				return CompletableFuture.failedFuture(e);
 			}
 
-			return Holder.of(list);
+			return stage.thenApply(holder -> {
+				if (!holder.exists()) {
+					close();
+				}
+				return holder;
+			});
 		}
 
-		@Override
-		protected final void internalClose() {
-			fetch.close();
+		public final CompletionStage<Boolean> moveNextAsync() {
+			return nextAsync().thenApply(holder -> {
+				current = holder;
+				return holder.exists();
+			});
 		}
-	}
 
-	public static final class ConcatFetch<T> extends Fetch<T> {
-		private final Fetch<T> left;
-		private final Fetch<T> right;
-		private Fetch<T> fetch;
-
-		public ConcatFetch(Fetch<T> left, Fetch<T> right) {
-			this.left = left;
-			this.right = right;
-			this.fetch = left;
+		public final T current() {
+			if (current == null) {
+				throw new NoSuchElementException();
+			}
+			return current.value();
 		}
 
-		@Override
-		protected final Holder<T> internalNext() {
-			var current = fetch.next();
+		protected abstract CompletionStage<Holder<T>> internalNextAsync();
 
-			if (current.exists()) {
-				return current;
+		@Override
+		public final void close() {
+			if (!closed) {
+				closed = true;
+				internalClose();
 			}
+		}
 
-			if (fetch == left) {
-				fetch = right;
-				return fetch.next();
-			}
+		protected abstract void internalClose();
 
-			return current;
+		protected static final CompletableFuture<Void> loop(Supplier<? extends CompletionStage<Boolean>> body) {
+			var result = new CompletableFuture<Void>();
+			loop(body, result);
+			return result;
 		}
 
-		@Override
-		protected final void internalClose() {
-			try (var _right = right;
-					var _left = left) {
+		private static void loop(Supplier<? extends CompletionStage<Boolean>> body, CompletableFuture<Void> result) {
+			while (true) {
+				CompletableFuture<Boolean> stage;
+
+				try {
+					stage = body.get().toCompletableFuture();
+				} catch (RuntimeException e) {
+					result.completeExceptionally(e);
+					return;
+				}
+
+				if (stage.isDone() && !stage.isCompletedExceptionally()) {
+					if (!stage.join()) {
+						result.complete(null);
+						return;
+					}
+					continue;
+				}
+
+				stage.whenComplete((more, error) -> {
+					if (error != null) {
+						result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+								? error.getCause()
+								: error);
+					} else if (more) {
+						loop(body, result);
+					} else {
+						result.complete(null);
+					}
+				});
+				return;
 			}
 		}
-
 	}
 
-	public static final class DefaultIfEmptyFetch<T> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private final T defaultValue;
-		private State state;
+	public static final class AsyncSelectAwaitFetch<T, U> extends AsyncFetch<U> {
+		private final AsyncFetch<T> fetch;
+		private final Function<T, ? extends CompletionStage<U>> function;
 
-		enum State {
-			DEFAULT, EMPTY, FETCH
+		public AsyncSelectAwaitFetch(AsyncFetch<T> fetch, Function<T, ? extends CompletionStage<U>> function) {
+			this.fetch = fetch;
+			this.function = function;
 		}
 
-		public DefaultIfEmptyFetch(Fetch<T> fetch, T defaultValue) {
-			this.fetch = fetch;
-			this.defaultValue = defaultValue;
-			this.state = State.DEFAULT;
+		@Override
+		protected final CompletionStage<Holder<U>> internalNextAsync() {
+			return fetch.nextAsync().thenCompose(holder -> {
+				if (holder.exists()) {
+					return function.apply(holder.value()).thenApply(Holder::of);
+				}
+				return CompletableFuture.completedFuture(Holder.<U>none());
+			});
 		}
 
 		@Override
-		protected final Holder<T> internalNext() {
-			if (state == State.FETCH) {
-				return fetch.next();
-			}
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
 
-			if (state == State.DEFAULT) {
-				var holder = fetch.next();
+	public static final class AsyncSelectFetch<T, U> extends AsyncFetch<U> {
+		private final AsyncFetch<T> fetch;
+		private final Function<T, U> function;
+
+		public AsyncSelectFetch(AsyncFetch<T> fetch, Function<T, U> function) {
+			this.fetch = fetch;
+			this.function = function;
+		}
 
+		@Override
+		protected final CompletionStage<Holder<U>> internalNextAsync() {
+			return fetch.nextAsync().thenApply(holder -> {
 				if (holder.exists()) {
-					state = State.FETCH;
-					return holder;
-				} else {
-					state = State.EMPTY;
-					return Holder.of(defaultValue);
+					return Holder.of(function.apply(holder.value()));
 				}
-			}
-
-			return Holder.none();
+				return Holder.none();
+			});
 		}
 
 		@Override
@@ -193,41 +309,78 @@ public class Linq<T> {
 		}
 	}
 
-	public static final class DistinctByFetch<T, K> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private final Function<T, K> keyFactory;
-		private Iterator<Holder<T>> iterator;
+	public static final class AsyncSelectManyFetch<T, U> extends AsyncFetch<U> {
+		private final AsyncFetch<T> fetch;
+		private final Function<T, AsyncFetch<U>> function;
+		private AsyncFetch<U> inner;
 
-		public DistinctByFetch(Fetch<T> fetch, Function<T, K> keyFactory) {
+		public AsyncSelectManyFetch(AsyncFetch<T> fetch, Function<T, AsyncFetch<U>> function) {
 			this.fetch = fetch;
-			this.keyFactory = keyFactory;
-			this.iterator = null;
+			this.function = function;
+			this.inner = null;
 		}
 
 		@Override
-		protected final Holder<T> internalNext() {
-			if (iterator == null) {
-				var map = new LinkedHashMap<K, Holder<T>>();
-
-				while (true) {
-					var holder = fetch.next();
+		protected final CompletionStage<Holder<U>> internalNextAsync() {
+			var result = new AtomicReference<Holder<U>>();
+
+			return loop(() -> {
+				if (inner == null) {
+					return fetch.nextAsync().thenApply(holder -> {
+						if (!holder.exists()) {
+							result.set(Holder.none());
+							return false;
+						}
+
+						inner = function.apply(holder.value());
+						return true;
+					});
+				}
 
+				return inner.nextAsync().thenApply(holder -> {
 					if (!holder.exists()) {
-						break;
+						inner = null;
+						return true;
 					}
 
-					var key = keyFactory.apply(holder.value());
-					map.putIfAbsent(key, holder);
-				}
+					result.set(holder);
+					return false;
+				});
+			}).thenApply(v -> result.get());
+		}
 
-				iterator = map.values().iterator();
+		@Override
+		protected final void internalClose() {
+			try (var _fetch = fetch;
+					var _inner = inner) {
 			}
+		}
+	}
 
-			if (iterator.hasNext()) {
-				return iterator.next();
-			}
+	public static final class AsyncSkipFetch<T> extends AsyncFetch<T> {
+		private final AsyncFetch<T> fetch;
+		private final long count;
+		private long index;
 
-			return Holder.none();
+		public AsyncSkipFetch(AsyncFetch<T> fetch, long count) {
+			this.fetch = fetch;
+			this.count = count;
+			this.index = 0L;
+		}
+
+		@Override
+		protected final CompletionStage<Holder<T>> internalNextAsync() {
+			var result = new AtomicReference<Holder<T>>();
+
+			return loop(() -> fetch.nextAsync().thenApply(holder -> {
+				if (holder.exists() && index < count) {
+					index++;
+					return true;
+				}
+
+				result.set(holder);
+				return false;
+			})).thenApply(v -> result.get());
 		}
 
 		@Override
@@ -236,40 +389,29 @@ public class Linq<T> {
 		}
 	}
 
-	public static final class DistinctFetch<T> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private Iterator<Holder<T>> iterator;
+	public static final class AsyncTakeFetch<T> extends AsyncFetch<T> {
+		private final AsyncFetch<T> fetch;
+		private final int count;
+		private int index;
 
-		public DistinctFetch(Fetch<T> fetch) {
+		public AsyncTakeFetch(AsyncFetch<T> fetch, int count) {
 			this.fetch = fetch;
-			this.iterator = null;
+			this.count = count;
+			this.index = 0;
 		}
 
 		@Override
-		protected final Holder<T> internalNext() {
-			if (iterator == null) {
-				var set = new LinkedHashSet<Holder<T>>();
-
-				while (true) {
-					var holder = fetch.next();
-
-					if (!holder.exists()) {
-						break;
-					}
-
-					if (!set.contains(holder)) {
-						set.add(holder);
+		protected final CompletionStage<Holder<T>> internalNextAsync() {
+			if (index < count) {
+				return fetch.nextAsync().thenApply(holder -> {
+					if (holder.exists()) {
+						index++;
 					}
-				}
-
-				iterator = set.iterator();
-			}
-
-			if (iterator.hasNext()) {
-				return iterator.next();
+					return holder;
+				});
 			}
 
-			return Holder.none();
+			return CompletableFuture.completedFuture(Holder.none());
 		}
 
 		@Override
@@ -278,655 +420,1034 @@ public class Linq<T> {
 		}
 	}
 
-	public static final class EmptyFetch<T> extends Fetch<T> {
+	public static final class AsyncWhereFetch<T> extends AsyncFetch<T> {
+		private final AsyncFetch<T> fetch;
+		private final Predicate<T> predicate;
+
+		public AsyncWhereFetch(AsyncFetch<T> fetch, Predicate<T> predicate) {
+			this.fetch = fetch;
+			this.predicate = predicate;
+		}
+
 		@Override
-		protected final Holder<T> internalNext() {
-			return Holder.none();
+		protected final CompletionStage<Holder<T>> internalNextAsync() {
+			var result = new AtomicReference<Holder<T>>();
+
+			return loop(() -> fetch.nextAsync().thenApply(holder -> {
+				if (holder.exists() && !predicate.test(holder.value())) {
+					return true;
+				}
+
+				result.set(holder);
+				return false;
+			})).thenApply(v -> result.get());
 		}
 
 		@Override
 		protected final void internalClose() {
+			fetch.close();
 		}
 	}
 
-	public static final class ExceptByFetch<T, K> extends Fetch<T> {
-		private final Fetch<T> left;
-		private final Fetch<T> right;
-		private final Function<T, K> keyFactory;
-		private Map<K, Holder<T>> map;
+	public static abstract class BinaryCodec<T> {
+		public abstract void write(T value, ByteBuffer buffer);
 
-		public ExceptByFetch(Fetch<T> left, Fetch<T> right, Function<T, K> keyFactory) {
-			this.left = left;
-			this.right = right;
-			this.keyFactory = keyFactory;
-			this.map = null;
-		}
+		public abstract T read(ByteBuffer buffer);
 
-		@Override
-		protected final Holder<T> internalNext() {
-			if (map == null) {
-				map = new HashMap<K, Holder<T>>();
+		public static final <T> BinaryCodec<T> of(BiConsumer<? super T, ByteBuffer> writer,
+				Function<ByteBuffer, ? extends T> reader) {
+			return new BinaryCodec<T>() {
+				@Override
+				public final void write(T value, ByteBuffer buffer) {
+					writer.accept(value, buffer);
+				}
 
-				while (true) {
-					var holder = right.next();
-
-					if (!holder.exists()) {
-						break;
-					}
-
-					var key = keyFactory.apply(holder.value());
-					map.put(key, holder);
+				@Override
+				public final T read(ByteBuffer buffer) {
+					return reader.apply(buffer);
 				}
-			}
+			};
+		}
 
-			while (true) {
-				var holder = left.next();
+		public static final BinaryCodec<Integer> ints() {
+			return of((value, buffer) -> buffer.putInt(value), ByteBuffer::getInt);
+		}
 
-				if (!holder.exists()) {
-					return holder;
-				}
+		public static final BinaryCodec<Long> longs() {
+			return of((value, buffer) -> buffer.putLong(value), ByteBuffer::getLong);
+		}
 
-				var key = keyFactory.apply(holder.value());
+		public static final BinaryCodec<Double> doubles() {
+			return of((value, buffer) -> buffer.putDouble(value), ByteBuffer::getDouble);
+		}
 
-				if (!map.containsKey(key)) {
-					return holder;
-				}
-			}
+		public static final BinaryCodec<String> strings() {
+			return of((value, buffer) -> {
+				var bytes = value.getBytes(StandardCharsets.UTF_8);
+				buffer.putInt(bytes.length).put(bytes);
+			}, buffer -> {
+				var bytes = new byte[buffer.getInt()];
+				buffer.get(bytes);
+				return new String(bytes, StandardCharsets.UTF_8);
+			});
 		}
 
-		@Override
-		protected final void internalClose() {
-			try (var _left = left;
-					var _right = right) {
-			}
+		public static final <T1, T2> BinaryCodec<Tuple2<T1, T2>> tuple(BinaryCodec<T1> codec1, BinaryCodec<T2> codec2) {
+			return of((value, buffer) -> {
+				codec1.write(value.value1, buffer);
+				codec2.write(value.value2, buffer);
+			}, buffer -> {
+				var value1 = codec1.read(buffer);
+				var value2 = codec2.read(buffer);
+				return new Tuple2<T1, T2>(value1, value2);
+			});
 		}
 	}
 
-	public static final class ExceptFetch<T> extends Fetch<T> {
-		private final Fetch<T> left;
-		private final Fetch<T> right;
-		private Set<Holder<T>> set;
+	public static final class BinaryColumns<T> {
+		static final int BLOCK_ROWS = 4096;
 
-		public ExceptFetch(Fetch<T> left, Fetch<T> right) {
-			this.left = left;
-			this.right = right;
-			this.set = null;
+		private final Function<ColumnRow, ? extends T> factory;
+		private final ArrayList<Object> getters;
+		private byte[] types;
+		private int rowWidth;
+
+		public BinaryColumns(Function<ColumnRow, ? extends T> factory) {
+			this.factory = factory;
+			this.getters = new ArrayList<Object>();
+			this.types = new byte[0];
+			this.rowWidth = 0;
 		}
 
-		@Override
-		protected final Holder<T> internalNext() {
-			if (set == null) {
-				set = new HashSet<Holder<T>>();
+		public final BinaryColumns<T> intColumn(ToIntFunction<? super T> getter) {
+			return add('I', getter);
+		}
 
-				while (true) {
-					var holder = right.next();
+		public final BinaryColumns<T> longColumn(ToLongFunction<? super T> getter) {
+			return add('J', getter);
+		}
 
-					if (!holder.exists()) {
-						break;
-					}
+		public final BinaryColumns<T> doubleColumn(ToDoubleFunction<? super T> getter) {
+			return add('D', getter);
+		}
 
-					set.add(holder);
-				}
-			}
+		public final int columnCount() {
+			return types.length;
+		}
 
-			while (true) {
-				var holder = left.next();
+		private BinaryColumns<T> add(char type, Object getter) {
+			types = Arrays.copyOf(types, types.length + 1);
+			types[types.length - 1] = (byte) type;
+			getters.add(getter);
+			rowWidth += width(types[types.length - 1]);
+			return this;
+		}
 
-				if (!holder.exists()) {
-					return holder;
-				}
+		final byte[] types() {
+			return types;
+		}
 
-				if (!set.contains(holder)) {
-					return holder;
-				}
-			}
+		final int rowWidth() {
+			return rowWidth;
 		}
 
-		@Override
-		protected final void internalClose() {
-			try (var _left = left;
-					var _right = right) {
-			}
+		final T create(ColumnRow row) {
+			return factory.apply(row);
 		}
-	}
 
-	public static abstract class Fetch<T> implements AutoCloseable {
-		private boolean closed;
-		private Holder<T> peek;
+		@SuppressWarnings("unchecked")
+		final void put(T value, ByteBuffer block, int row) {
+			var offset = Integer.BYTES;
 
-		public final Holder<T> peek() {
-			if (closed) {
-				throw new IllegalStateException("already closed");
+			for (var i = 0; i < types.length; i++) {
+				switch (types[i]) {
+				case 'I':
+					block.putInt(offset + row * Integer.BYTES, ((ToIntFunction<? super T>) getters.get(i)).applyAsInt(value));
+					break;
+				case 'J':
+					block.putLong(offset + row * Long.BYTES, ((ToLongFunction<? super T>) getters.get(i)).applyAsLong(value));
+					break;
+				default:
+					block.putDouble(offset + row * Double.BYTES,
+							((ToDoubleFunction<? super T>) getters.get(i)).applyAsDouble(value));
+					break;
+				}
+
+				offset += BLOCK_ROWS * width(types[i]);
 			}
+		}
 
-			if (peek == null) {
-				peek = internalNext();
+		final void writeBlock(FileChannel channel, ByteBuffer block, int rows) throws IOException {
+			block.putInt(0, rows);
+			var header = block.duplicate().position(0).limit(Integer.BYTES);
+			writeFully(channel, header);
+			var offset = Integer.BYTES;
+
+			for (var type : types) {
+				var width = width(type);
+				writeFully(channel, block.duplicate().position(offset).limit(offset + rows * width));
+				offset += BLOCK_ROWS * width;
 			}
+		}
 
-			return peek;
+		static int width(byte type) {
+			return type == 'I' ? Integer.BYTES : Long.BYTES;
 		}
+	}
 
-		public final Holder<T> next() {
-			if (closed) {
-				throw new IllegalStateException("already closed");
-			}
+	public static final class BinaryFetch<T> extends Fetch<T> {
+		private final Path path;
+		private final BinaryCodec<? extends T> codec;
+		private final int window;
+		private FileChannel channel;
+		private ByteBuffer buffer;
+		private long base;
+		private long size;
+		private long count;
+		private long index;
 
-			if (peek == null) {
-				var current = internalNext();
-				if (!current.exists()) {
-					close();
+		public BinaryFetch(Path path, BinaryCodec<? extends T> codec, int window) {
+			this.path = path;
+			this.codec = codec;
+			this.window = window;
+			this.channel = null;
+			this.buffer = null;
+			this.base = 0L;
+			this.size = 0L;
+			this.count = 0L;
+			this.index = 0L;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			try {
+				if (channel == null) {
+					channel = FileChannel.open(path, StandardOpenOption.READ);
+					size = channel.size();
+					count = readBinaryHeader(channel, BINARY_ROWS);
+					base = BINARY_HEADER;
+					buffer = map();
 				}
-				return current;
-			} else {
-				var current = peek;
-				if (!current.exists()) {
-					close();
+
+				if (index == count) {
+					return Holder.none();
 				}
-				peek = null;
-				return current;
+
+				while (true) {
+					var position = buffer.position();
+
+					try {
+						var value = codec.read(buffer);
+						index++;
+						return Holder.of(value);
+					} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+						if (position == 0 && base + buffer.limit() == size) {
+							throw new IllegalStateException("truncated record: " + path, e);
+						}
+
+						if (position == 0) {
+							throw new IllegalStateException("record too large: " + path, e);
+						}
+
+						base += position;
+						buffer = map();
+					}
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
 			}
 		}
 
-		protected abstract Holder<T> internalNext();
+		private ByteBuffer map() throws IOException {
+			return channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(window, size - base));
+		}
 
 		@Override
-		public final void close() {
-			if (!closed) {
-				closed = true;
-				internalClose();
+		protected final void internalClose() {
+			buffer = null;
+
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
 			}
 		}
+	}
 
-		protected abstract void internalClose();
+	public static final class BinaryRecord {
+		private final int size;
+		private ByteBuffer buffer;
+		private int offset;
+		private long index;
 
-	}
+		public BinaryRecord(int size) {
+			this.size = size;
+			this.buffer = null;
+			this.offset = 0;
+			this.index = -1L;
+		}
 
-	public static final class FetchIterator<T> implements Iterator<T>, AutoCloseable {
-		private final Fetch<T> fetch;
+		final void move(ByteBuffer buffer, int offset, long index) {
+			this.buffer = buffer;
+			this.offset = offset;
+			this.index = index;
+		}
 
-		public FetchIterator(Fetch<T> fetch) {
-			this.fetch = fetch;
+		public final long index() {
+			return index;
 		}
 
-		@Override
-		public final boolean hasNext() {
-			return fetch.peek().exists();
+		public final int size() {
+			return size;
 		}
 
-		@Override
-		public final T next() {
-			return fetch.next().value();
+		public final byte getByte(int field) {
+			return buffer.get(position(field, Byte.BYTES));
 		}
 
-		@Override
-		public void close() {
-			fetch.close();
+		public final short getShort(int field) {
+			return buffer.getShort(position(field, Short.BYTES));
 		}
-	}
 
-	public static final class GroupByFetch<T, K> extends Fetch<Entry<K, List<T>>> {
-		private final Fetch<T> fetch;
-		private final Function<T, K> keyFactory;
-		private Iterator<Entry<K, List<T>>> entries;
+		public final int getInt(int field) {
+			return buffer.getInt(position(field, Integer.BYTES));
+		}
 
-		public GroupByFetch(Fetch<T> fetch, Function<T, K> keyFactory) {
-			this.fetch = fetch;
-			this.keyFactory = keyFactory;
-			this.entries = null;
+		public final long getLong(int field) {
+			return buffer.getLong(position(field, Long.BYTES));
 		}
 
-		@Override
-		protected final Holder<Entry<K, List<T>>> internalNext() {
-			if (entries == null) {
-				var map = new LinkedHashMap<K, List<T>>();
+		public final float getFloat(int field) {
+			return buffer.getFloat(position(field, Float.BYTES));
+		}
 
-				while (true) {
-					var holder = fetch.next();
+		public final double getDouble(int field) {
+			return buffer.getDouble(position(field, Double.BYTES));
+		}
 
-					if (!holder.exists()) {
-						break;
-					}
+		public final BinaryRecord copy() {
+			var bytes = new byte[size];
+			buffer.duplicate().position(offset).get(bytes);
+			var copy = new BinaryRecord(size);
+			copy.move(ByteBuffer.wrap(bytes).order(buffer.order()), 0, index);
+			return copy;
+		}
 
-					var key = keyFactory.apply(holder.value());
-					var values = map.get(key);
+		private int position(int field, int width) {
+			return offset + Objects.checkFromIndexSize(field, width, size);
+		}
+	}
 
-					if (values == null) {
-						values = new ArrayList<T>();
-						map.put(key, values);
-					}
+	public static final class CastFetch<T, U> extends Fetch<U> {
+		private final Fetch<T> fetch;
 
-					values.add(holder.value());
-				}
+		public CastFetch(Fetch<T> fetch) {
+			this.fetch = fetch;
+		}
 
-				entries = map.entrySet().iterator();
-			}
+		@Override
+		protected final Holder<U> internalNext() {
+			var holder = fetch.next();
 
-			if (entries.hasNext()) {
-				return Holder.of(entries.next());
+			if (holder.exists()) {
+				@SuppressWarnings("unchecked")
+				var value = (U) holder.value();
+				return Holder.of(value);
 			}
 
 			return Holder.none();
 		}
 
+		@Override
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			return fetch.nextBatch(batch, offset, length);
+		}
+
 		@Override
 		protected final void internalClose() {
 			fetch.close();
 		}
 	}
 
-	public static final class GroupJoinFetch<TLeft, TRight, TKey, TResult> extends Fetch<TResult> {
-		private final Fetch<TLeft> left;
-		private final Fetch<TRight> right;
-		private final Function<TLeft, TKey> leftKeyFactory;
-		private final Function<TRight, TKey> rightKeyFactory;
-		private final BiFunction<TLeft, Linq<TRight>, TResult> resultFactory;
-		private Map<TKey, List<TRight>> map;
-
-		public GroupJoinFetch(
-				Fetch<TLeft> left,
-				Fetch<TRight> right,
-				Function<TLeft, TKey> leftKeyFactory,
-				Function<TRight, TKey> rightKeyFactory,
-				BiFunction<TLeft, Linq<TRight>, TResult> resultFactory) {
-			this.left = left;
-			this.right = right;
-			this.leftKeyFactory = leftKeyFactory;
-			this.rightKeyFactory = rightKeyFactory;
-			this.resultFactory = resultFactory;
-			this.map = null;
+	public static final class ChannelSink implements AutoCloseable {
+		private final WritableByteChannel channel;
+		private final CharsetEncoder encoder;
+		private final SpscRingBuffer<ByteBuffer> full;
+		private final SpscRingBuffer<ByteBuffer> empty;
+		private ByteBuffer buffer;
+		private Thread thread;
+		private long records;
+		private long bytes;
+		private volatile Throwable error;
+
+		public ChannelSink(WritableByteChannel channel, Charset charset, int bufferSize, boolean background) {
+			this.channel = channel;
+			this.encoder = charset.newEncoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			this.buffer = ByteBuffer.allocateDirect(bufferSize);
+			this.records = 0L;
+			this.bytes = 0L;
+			this.error = null;
+
+			if (background) {
+				this.full = new SpscRingBuffer<ByteBuffer>(2);
+				this.empty = new SpscRingBuffer<ByteBuffer>(2);
+				this.empty.offer(ByteBuffer.allocateDirect(bufferSize));
+				this.thread = new Thread(this::drain, "linq-sink");
+				this.thread.setDaemon(true);
+				this.thread.start();
+			} else {
+				this.full = null;
+				this.empty = null;
+				this.thread = null;
+			}
 		}
 
-		@Override
-		protected final Holder<TResult> internalNext() {
-			if (map == null) {
-				map = new LinkedHashMap<TKey, List<TRight>>();
+		public final void write(CharSequence text) {
+			encode(text);
+			encode("\n");
+			records++;
+		}
 
-				while (true) {
-					var holder = right.next();
+		private void encode(CharSequence text) {
+			var chars = CharBuffer.wrap(text);
 
-					if (!holder.exists()) {
-						break;
-					}
+			while (encoder.encode(chars, buffer, true).isOverflow()) {
+				makeRoom(chars);
+			}
 
-					var key = rightKeyFactory.apply(holder.value());
-					var values = map.get(key);
+			while (encoder.flush(buffer).isOverflow()) {
+				makeRoom(chars);
+			}
 
-					if (values == null) {
-						values = new ArrayList<TRight>();
-						map.put(key, values);
-					}
+			encoder.reset();
+		}
 
-					values.add(holder.value());
-				}
+		private void makeRoom(CharBuffer chars) {
+			if (buffer.position() == 0) {
+				encoder.reset();
+				throw new IllegalStateException("buffer too small at char " + chars.position());
 			}
 
-			var holder = left.next();
+			flush();
+		}
 
-			if (holder.exists()) {
-				var key = leftKeyFactory.apply(holder.value());
-				var values = map.get(key);
+		public final long records() {
+			return records;
+		}
 
-				if (values == null) {
-					values = new ArrayList<TRight>();
-				}
+		public final long bytes() {
+			return bytes;
+		}
 
-				return Holder.of(resultFactory.apply(holder.value(), Linq.from(values)));
+		private void flush() {
+			buffer.flip();
+			bytes += buffer.remaining();
+
+			if (thread == null) {
+				write(buffer);
+				buffer.clear();
+				return;
 			}
 
-			return Holder.none();
+			full.put(buffer);
+			buffer = empty.take();
+			check();
 		}
 
-		@Override
-		protected final void internalClose() {
-			try (var _left = left;
-					var _right = right) {
+		private void write(ByteBuffer buffer) {
+			try {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
 			}
 		}
-	}
 
-	public static final class Holder<T> {
-		public static final <T> Holder<T> none() {
-			return new Holder<T>(null, false);
-		}
-
-		public static final <T> Holder<T> of(T value) {
-			return new Holder<T>(value, true);
-		}
+		private void drain() {
+			while (true) {
+				var current = full.take();
 
-		private final T value;
-		private final boolean exist;
+				if (current == null) {
+					return;
+				}
 
-		private Holder(T value, boolean exist) {
-			this.value = value;
-			this.exist = exist;
-		}
+				try {
+					if (error == null) {
+						write(current);
+					}
+				} catch (RuntimeException | Error e) {
+					error = e;
+				}
 
-		public final boolean exists() {
-			return exist;
+				current.clear();
+				empty.put(current);
+			}
 		}
 
-		public final T value() {
-			if (exist) {
-				return value;
+		private void check() {
+			if (error instanceof UncheckedIOException) {
+				throw new UncheckedIOException(((UncheckedIOException) error).getCause());
 			}
-			throw new NoSuchElementException();
-		}
 
-		@Override
-		public final int hashCode() {
-			return Objects.hash(exist, value);
+			if (error != null) {
+				throw unchecked(error);
+			}
 		}
 
 		@Override
-		public final boolean equals(Object obj) {
-			if (this == obj) {
-				return true;
+		public final void close() {
+			if (buffer.position() > 0) {
+				flush();
 			}
-			if (!(obj instanceof Holder)) {
-				return false;
+
+			if (thread != null) {
+				full.close();
+
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("interrupted", e);
+				}
+
+				thread = null;
+				check();
 			}
-			@SuppressWarnings("unchecked")
-			var other = (Holder<T>) obj;
-			return exist == other.exist && Objects.equals(value, other.value);
 		}
-
 	}
 
-	public static final class IntersectByFetch<TLeft, TKey> extends Fetch<TLeft> {
-		private final Fetch<TLeft> left;
-		private final Fetch<TKey> right;
-		private final Function<TLeft, TKey> keyFactory;
-		private Set<TKey> set;
+	public static final class ChunkFetch<T> extends Fetch<List<T>> {
+		private final Fetch<T> fetch;
+		private final int size;
+		private boolean terminated;
 
-		public IntersectByFetch(
-				Fetch<TLeft> left,
-				Fetch<TKey> right,
-				Function<TLeft, TKey> keyFactory) {
-			this.left = left;
-			this.right = right;
-			this.keyFactory = keyFactory;
-			this.set = null;
+		public ChunkFetch(Fetch<T> fetch, int size) {
+			this.fetch = fetch;
+			this.size = size;
+			this.terminated = false;
 		}
 
 		@Override
-		protected final Holder<TLeft> internalNext() {
-			if (set == null) {
-				set = new HashSet<TKey>();
-
-				while (true) {
-					var holder = right.next();
-
-					if (!holder.exists()) {
-						break;
-					}
-
-					set.add(holder.value());
-				}
+		protected final Holder<List<T>> internalNext() {
+			if (terminated) {
+				return Holder.none();
 			}
 
-			while (true) {
-				var holder = left.next();
+			var list = new ArrayList<T>();
 
-				if (!holder.exists()) {
-					return holder;
+			for (var i = 0; i < size; i++) {
+				var current = fetch.next();
+
+				if (!current.exists()) {
+					terminated = true;
+					break;
 				}
 
-				var key = keyFactory.apply(holder.value());
+				list.add(current.value());
+			}
 
-				if (set.contains(key)) {
-					return holder;
-				}
+			if (list.isEmpty()) {
+				return Holder.none();
 			}
+
+			return Holder.of(list);
 		}
 
 		@Override
 		protected final void internalClose() {
-			try (var _left = left;
-					var _right = right) {
-			}
+			fetch.close();
 		}
 	}
 
-	public static final class IntersectFetch<T> extends Fetch<T> {
-		private final Fetch<T> left;
-		private final Fetch<T> right;
-		private Set<Holder<T>> set;
+	public static final class ColumnRow {
+		private final int[] offsets;
+		private final int[] widths;
+		private ByteBuffer buffer;
+		private int row;
+		private long index;
 
-		public IntersectFetch(Fetch<T> left, Fetch<T> right) {
-			this.left = left;
-			this.right = right;
-			this.set = null;
+		public ColumnRow(byte[] types) {
+			this.offsets = new int[types.length];
+			this.widths = new int[types.length];
+			this.buffer = null;
+			this.row = 0;
+			this.index = -1L;
+
+			for (var i = 0; i < types.length; i++) {
+				this.widths[i] = BinaryColumns.width(types[i]);
+			}
 		}
 
-		@Override
-		protected final Holder<T> internalNext() {
-			if (set == null) {
-				set = new HashSet<Holder<T>>();
+		final void block(ByteBuffer buffer, int offset, int rows) {
+			this.buffer = buffer;
 
-				while (true) {
-					var holder = right.next();
+			for (var i = 0; i < offsets.length; i++) {
+				offsets[i] = offset;
+				offset += rows * widths[i];
+			}
+		}
 
-					if (!holder.exists()) {
-						break;
-					}
+		final void move(int row, long index) {
+			this.row = row;
+			this.index = index;
+		}
 
-					set.add(holder);
-				}
-			}
+		public final long index() {
+			return index;
+		}
 
-			while (true) {
-				var holder = left.next();
+		public final int getInt(int column) {
+			return buffer.getInt(position(column, Integer.BYTES));
+		}
 
-				if (!holder.exists()) {
-					return holder;
-				}
+		public final long getLong(int column) {
+			return buffer.getLong(position(column, Long.BYTES));
+		}
 
-				if (set.contains(holder)) {
-					return holder;
-				}
-			}
+		public final double getDouble(int column) {
+			return buffer.getDouble(position(column, Double.BYTES));
 		}
 
-		@Override
-		protected final void internalClose() {
-			try (var _left = left;
-					var _right = right) {
+		private int position(int column, int width) {
+			if (widths[column] != width) {
+				throw new IllegalArgumentException("column type: " + column);
 			}
+
+			return offsets[column] + row * width;
 		}
 	}
 
-	public static final class IterableFetch<T> extends Fetch<T> {
-		private final Iterable<T> iterable;
-		private Iterator<T> iterator;
-
-		public IterableFetch(Iterable<T> iterable) {
-			this.iterable = iterable;
-			this.iterator = null;
+	public static final class ColumnsFetch<T> extends Fetch<T> {
+		private final Path path;
+		private final BinaryColumns<T> columns;
+		private final int window;
+		private final ColumnRow current;
+		private FileChannel channel;
+		private ByteBuffer buffer;
+		private long base;
+		private long size;
+		private long index;
+		private int rows;
+		private int row;
+
+		public ColumnsFetch(Path path, BinaryColumns<T> columns, int window) {
+			this.path = path;
+			this.columns = columns;
+			this.window = Math.max(window, Integer.BYTES + BinaryColumns.BLOCK_ROWS * columns.rowWidth());
+			this.current = new ColumnRow(columns.types());
+			this.channel = null;
+			this.buffer = null;
+			this.base = 0L;
+			this.size = 0L;
+			this.index = 0L;
+			this.rows = 0;
+			this.row = 0;
 		}
 
 		@Override
 		protected final Holder<T> internalNext() {
-			if (iterator == null) {
-				iterator = iterable.iterator();
-			}
+			try {
+				if (channel == null) {
+					channel = FileChannel.open(path, StandardOpenOption.READ);
+					size = channel.size();
+					readBinaryHeader(channel, BINARY_COLUMNS);
+					var types = ByteBuffer.allocate(Integer.BYTES + columns.columnCount());
+					channel.read(types, BINARY_HEADER);
+
+					if (types.getInt(0) != columns.columnCount()
+							|| !Arrays.equals(Arrays.copyOfRange(types.array(), Integer.BYTES, types.capacity()), columns.types())) {
+						throw new IllegalStateException("column mismatch: " + path);
+					}
 
-			if (iterator.hasNext()) {
-				return Holder.of(iterator.next());
+					base = BINARY_HEADER + types.capacity();
+					buffer = map();
+				}
+
+				if (row == rows) {
+					var position = buffer.position();
+
+					if (base + position == size) {
+						return Holder.none();
+					}
+
+					if (!hasBlock(position)) {
+						base += position;
+						buffer = map();
+						position = 0;
+
+						if (!hasBlock(position)) {
+							throw new IllegalStateException("truncated block: " + path);
+						}
+					}
+
+					rows = buffer.getInt(position);
+					row = 0;
+					current.block(buffer, position + Integer.BYTES, rows);
+					buffer.position(position + Integer.BYTES + rows * columns.rowWidth());
+				}
+
+				current.move(row++, index++);
+				return Holder.of(columns.create(current));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
 			}
+		}
 
-			return Holder.none();
+		private boolean hasBlock(int position) {
+			var remaining = buffer.limit() - position;
+			return remaining >= Integer.BYTES
+					&& remaining >= Integer.BYTES + (long) buffer.getInt(position) * columns.rowWidth();
+		}
+
+		private ByteBuffer map() throws IOException {
+			return channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(window, size - base));
 		}
 
 		@Override
 		protected final void internalClose() {
+			buffer = null;
+
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
 		}
 	}
 
-	public static final class StreamFetch<T> extends Fetch<T> {
-		private final Stream<T> stream;
-		private Iterator<T> iterator;
+	public static final class ConcatFetch<T> extends Fetch<T> {
+		private final Fetch<T> left;
+		private final Fetch<T> right;
+		private Fetch<T> fetch;
 
-		public StreamFetch(Stream<T> stream) {
-			this.stream = stream;
-			this.iterator = null;
+		public ConcatFetch(Fetch<T> left, Fetch<T> right) {
+			this.left = left;
+			this.right = right;
+			this.fetch = left;
 		}
 
 		@Override
 		protected final Holder<T> internalNext() {
-			if (iterator == null) {
-				iterator = stream.iterator();
+			var current = fetch.next();
+
+			if (current.exists()) {
+				return current;
 			}
 
-			if (iterator.hasNext()) {
-				return Holder.of(iterator.next());
+			if (fetch == left) {
+				fetch = right;
+				return fetch.next();
 			}
 
-			return Holder.none();
+			return current;
 		}
 
 		@Override
 		protected final void internalClose() {
-			stream.close();
+			try (var _right = right;
+					var _left = left) {
+			}
 		}
-	}
 
-	public static final class JoinFetch<TLeft, TRight, TKey, TResult> extends Fetch<TResult> {
-		private final Fetch<TLeft> left;
-		private final Fetch<TRight> right;
-		private final Function<TLeft, TKey> leftKeyFactory;
-		private final Function<TRight, TKey> rightKeyFactory;
-		private final BiFunction<TLeft, Linq<TRight>, TResult> resultFactory;
-		private Map<TKey, List<TRight>> map;
+	}
 
-		public JoinFetch(
-				Fetch<TLeft> left,
-				Fetch<TRight> right,
-				Function<TLeft, TKey> leftKeyFactory,
-				Function<TRight, TKey> rightKeyFactory,
-				BiFunction<TLeft, Linq<TRight>, TResult> resultFactory) {
-			this.left = left;
-			this.right = right;
-			this.leftKeyFactory = leftKeyFactory;
-			this.rightKeyFactory = rightKeyFactory;
-			this.resultFactory = resultFactory;
-			this.map = null;
+	public static final class CsvFetch extends Fetch<CsvRow> {
+		private final Path path;
+		private final int window;
+		private final CsvRow row;
+		private FileChannel channel;
+		private MappedByteBuffer buffer;
+		private long base;
+		private long size;
+		private int position;
+
+		public CsvFetch(Path path, char delimiter, Charset charset, int window) {
+			this.path = path;
+			this.window = window;
+			this.row = new CsvRow((byte) delimiter, charset);
+			this.channel = null;
+			this.buffer = null;
+			this.base = 0L;
+			this.size = 0L;
+			this.position = 0;
 		}
 
 		@Override
-		protected final Holder<TResult> internalNext() {
-			if (map == null) {
-				map = new LinkedHashMap<>();
+		protected final Holder<CsvRow> internalNext() {
+			try {
+				if (channel == null) {
+					channel = FileChannel.open(path, StandardOpenOption.READ);
+					size = channel.size();
+					buffer = map();
+				}
 
-				while (true) {
-					var holder = right.next();
+				while (buffer != null) {
+					var last = base + buffer.limit() >= size;
+					var end = row.parse(buffer, position, last);
 
-					if (!holder.exists()) {
-						break;
+					if (end >= 0) {
+						position = end;
+						return Holder.of(row);
 					}
 
-					var key = rightKeyFactory.apply(holder.value());
-					var values = map.get(key);
+					if (last) {
+						buffer = null;
+						break;
+					}
 
-					if (values == null) {
-						values = new ArrayList<TRight>();
-						map.put(key, values);
+					if (position == 0) {
+						throw new IllegalStateException("record too long: " + path);
 					}
 
-					values.add(holder.value());
+					base += position;
+					position = 0;
+					buffer = map();
 				}
+
+				return Holder.none();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
 			}
+		}
 
-			while (true) {
-				var holder = left.next();
+		private MappedByteBuffer map() throws IOException {
+			return channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(window, size - base));
+		}
 
-				if (!holder.exists()) {
-					return Holder.none();
+		@Override
+		protected final void internalClose() {
+			buffer = null;
+
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
 				}
+			}
+		}
+	}
 
-				var key = leftKeyFactory.apply(holder.value());
-				var values = map.get(key);
+	public static final class CsvRow {
+		private final byte delimiter;
+		private final Charset charset;
+		private ByteBuffer buffer;
+		private int count;
+		private int[] starts;
+		private int[] ends;
+		private boolean[] escapes;
+
+		public CsvRow(byte delimiter, Charset charset) {
+			this.delimiter = delimiter;
+			this.charset = charset;
+			this.buffer = null;
+			this.count = 0;
+			this.starts = new int[16];
+			this.ends = new int[16];
+			this.escapes = new boolean[16];
+		}
+
+		final int parse(ByteBuffer buffer, int start, boolean last) {
+			var limit = buffer.limit();
+
+			if (start >= limit) {
+				return -1;
+			}
 
-				if (values != null) {
-					return Holder.of(resultFactory.apply(holder.value(), Linq.from(values)));
+			this.buffer = buffer;
+			this.count = 0;
+
+			var fieldStart = start;
+			var fieldEnd = -1;
+			var quoted = false;
+			var escaped = false;
+			var i = start;
+
+			while (i < limit) {
+				var b = buffer.get(i);
+
+				if (quoted) {
+					if (b == '"') {
+						if (i + 1 >= limit && !last) {
+							return -1;
+						}
+
+						if (i + 1 < limit && buffer.get(i + 1) == '"') {
+							escaped = true;
+							i += 2;
+							continue;
+						}
+
+						quoted = false;
+						fieldEnd = i;
+					}
+
+					i++;
+					continue;
+				}
+
+				if (b == '"' && i == fieldStart) {
+					quoted = true;
+					fieldStart = i + 1;
+				} else if (b == delimiter) {
+					add(fieldStart, fieldEnd < 0 ? i : fieldEnd, escaped);
+					fieldStart = i + 1;
+					fieldEnd = -1;
+					escaped = false;
+				} else if (b == '\n') {
+					add(fieldStart, fieldEnd < 0 ? trim(fieldStart, i) : fieldEnd, escaped);
+					return i + 1;
 				}
+
+				i++;
+			}
+
+			if (!last) {
+				return -1;
 			}
+
+			if (quoted) {
+				throw new IllegalStateException("unterminated quote");
+			}
+
+			add(fieldStart, fieldEnd < 0 ? trim(fieldStart, limit) : fieldEnd, escaped);
+			return limit;
 		}
 
-		@Override
-		protected final void internalClose() {
-			try (var _left = left;
-					var _right = right) {
+		private int trim(int start, int end) {
+			if (end > start && buffer.get(end - 1) == '\r') {
+				return end - 1;
 			}
+			return end;
 		}
-	}
 
-	public static final class OrderFetch<T> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private final Comparator<T> comparator;
-		private Iterator<T> iterator;
+		private void add(int start, int end, boolean escaped) {
+			if (count == starts.length) {
+				starts = Arrays.copyOf(starts, count * 2);
+				ends = Arrays.copyOf(ends, count * 2);
+				escapes = Arrays.copyOf(escapes, count * 2);
+			}
 
-		public OrderFetch(Fetch<T> fetch, Comparator<T> comparator) {
-			this.fetch = fetch;
-			this.comparator = comparator;
-			this.iterator = null;
+			starts[count] = start;
+			ends[count] = end;
+			escapes[count] = escaped;
+			count++;
 		}
 
-		@Override
-		protected final Holder<T> internalNext() {
-			if (iterator == null) {
-				var list = new ArrayList<T>();
-				
-				while (true) {
-					var current = fetch.next();
-					
-					if (!current.exists()) {
-						break;
-					}
-					
-					list.add(current.value());
+		public final int fieldCount() {
+			return count;
+		}
+
+		public final int length(int index) {
+			Objects.checkIndex(index, count);
+			return ends[index] - starts[index];
+		}
+
+		public final String getString(int index) {
+			Objects.checkIndex(index, count);
+			var bytes = new byte[ends[index] - starts[index]];
+			buffer.duplicate().position(starts[index]).get(bytes);
+			var value = new String(bytes, charset);
+
+			if (escapes[index]) {
+				return value.replace("\"\"", "\"");
+			}
+
+			return value;
+		}
+
+		public final long getLong(int index) {
+			Objects.checkIndex(index, count);
+			var start = starts[index];
+			var end = ends[index];
+			var negative = false;
+
+			if (start < end && (buffer.get(start) == '-' || buffer.get(start) == '+')) {
+				negative = buffer.get(start) == '-';
+				start++;
+			}
+
+			if (start == end || end - start > 18) {
+				return Long.parseLong(getString(index));
+			}
+
+			var result = 0L;
+
+			for (var i = start; i < end; i++) {
+				var digit = buffer.get(i) - '0';
+
+				if (digit < 0 || digit > 9) {
+					throw new NumberFormatException("For input string: \"" + getString(index) + "\"");
 				}
-				
-				Collections.sort(list, comparator);
-				iterator = list.iterator();
+
+				result = result * 10 + digit;
 			}
 
-			if (iterator.hasNext()) {
-				return Holder.of(iterator.next());
+			return negative ? -result : result;
+		}
+
+		public final int getInt(int index) {
+			var value = getLong(index);
+
+			if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+				throw new NumberFormatException("For input string: \"" + getString(index) + "\"");
 			}
 
-			return Holder.none();
+			return (int) value;
 		}
 
-		public final <U extends Comparable<U>> OrderFetch<T> thenBy(final Function<T, U> keySelector) {
-			return new OrderFetch<T>(fetch, comparator.thenComparing(keySelector));
+		public final double getDouble(int index) {
+			return Double.parseDouble(getString(index));
 		}
 
-		public final <U extends Comparable<U>> OrderFetch<T> thenByDescending(final Function<T, U> keySelector) {
-			return new OrderFetch<T>(fetch, comparator.thenComparing(keySelector, Comparator.reverseOrder()));
+		public final String[] toArray() {
+			var array = new String[count];
+
+			for (var i = 0; i < count; i++) {
+				array[i] = getString(i);
+			}
+
+			return array;
 		}
 
 		@Override
-		protected final void internalClose() {
-			fetch.close();
+		public final String toString() {
+			return Arrays.toString(toArray());
 		}
 	}
 
-	public static final class RangeFetch extends Fetch<Integer> {
-		private final int start;
-		private final int count;
+	public static final class DoubleArrayFetch extends Fetch<Double> {
+		private final double[] array;
+		private final double lower;
+		private final double upper;
+		private final boolean filtered;
 		private int index;
 
-		public RangeFetch(int start, int count) {
-			this.start = start;
-			this.count = count;
+		public DoubleArrayFetch(double[] array, double lower, double upper, boolean filtered) {
+			this.array = array;
+			this.lower = lower;
+			this.upper = upper;
+			this.filtered = filtered;
 			this.index = 0;
 		}
 
 		@Override
-		protected final Holder<Integer> internalNext() {
-			if (index < count) {
-				return Holder.of(start + (index++));
+		protected final Holder<Double> internalNext() {
+			while (index < array.length) {
+				var value = array[index++];
+
+				if (!filtered || (value >= lower && value <= upper)) {
+					return Holder.of(value);
+				}
 			}
+
 			return Holder.none();
 		}
 
@@ -935,44 +1456,63 @@ public class Linq<T> {
 		}
 	}
 
-	public static final class RepeatFetch<T> extends Fetch<T> {
-		private final T value;
-		private final int count;
-		private int index;
+	public static final class DefaultIfEmptyFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final T defaultValue;
+		private State state;
 
-		public RepeatFetch(T value, int count) {
-			this.value = value;
-			this.count = count;
-			this.index = 0;
+		enum State {
+			DEFAULT, EMPTY, FETCH
+		}
+
+		public DefaultIfEmptyFetch(Fetch<T> fetch, T defaultValue) {
+			this.fetch = fetch;
+			this.defaultValue = defaultValue;
+			this.state = State.DEFAULT;
 		}
 
 		@Override
 		protected final Holder<T> internalNext() {
-			if (index < count) {
-				index++;
-				return Holder.of(value);
+			if (state == State.FETCH) {
+				return fetch.next();
 			}
+
+			if (state == State.DEFAULT) {
+				var holder = fetch.next();
+
+				if (holder.exists()) {
+					state = State.FETCH;
+					return holder;
+				} else {
+					state = State.EMPTY;
+					return Holder.of(defaultValue);
+				}
+			}
+
 			return Holder.none();
 		}
 
 		@Override
 		protected final void internalClose() {
+			fetch.close();
 		}
 	}
 
-	public static final class ReverseFetch<T> extends Fetch<T> {
+	public static final class DistinctByFetch<T, K> extends Fetch<T> {
 		private final Fetch<T> fetch;
+		private final Function<T, K> keyFactory;
 		private Iterator<Holder<T>> iterator;
 
-		public ReverseFetch(Fetch<T> fetch) {
+		public DistinctByFetch(Fetch<T> fetch, Function<T, K> keyFactory) {
 			this.fetch = fetch;
+			this.keyFactory = keyFactory;
 			this.iterator = null;
 		}
 
 		@Override
 		protected final Holder<T> internalNext() {
 			if (iterator == null) {
-				var list = new ArrayList<Holder<T>>();
+				var map = new LinkedHashMap<K, Holder<T>>();
 
 				while (true) {
 					var holder = fetch.next();
@@ -981,11 +1521,11 @@ public class Linq<T> {
 						break;
 					}
 
-					list.add(holder);
+					var key = keyFactory.apply(holder.value());
+					map.putIfAbsent(key, holder);
 				}
 
-				Collections.reverse(list);
-				iterator = list.iterator();
+				iterator = map.values().iterator();
 			}
 
 			if (iterator.hasNext()) {
@@ -1001,21 +1541,38 @@ public class Linq<T> {
 		}
 	}
 
-	public static final class SelectFetch<T, U> extends Fetch<U> {
+	public static final class DistinctFetch<T> extends Fetch<T> {
 		private final Fetch<T> fetch;
-		private final Function<T, U> function;
+		private Iterator<Holder<T>> iterator;
 
-		public SelectFetch(Fetch<T> iterator, Function<T, U> function) {
-			this.fetch = iterator;
-			this.function = function;
+		public DistinctFetch(Fetch<T> fetch) {
+			this.fetch = fetch;
+			this.iterator = null;
 		}
 
 		@Override
-		protected final Holder<U> internalNext() {
-			var holder = fetch.next();
+		protected final Holder<T> internalNext() {
+			if (iterator == null) {
+				var set = new LinkedHashSet<Holder<T>>();
 
-			if (holder.exists()) {
-				return Holder.of(function.apply(holder.value()));
+				while (true) {
+					var holder = fetch.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					if (!set.contains(holder)) {
+						set.add(holder);
+					}
+				}
+
+				buffered(set.size());
+				iterator = set.iterator();
+			}
+
+			if (iterator.hasNext()) {
+				return iterator.next();
 			}
 
 			return Holder.none();
@@ -1027,329 +1584,870 @@ public class Linq<T> {
 		}
 	}
 
-	public static final class SelectManyFetch<T, U> extends Fetch<U> {
-		private final Fetch<T> fetch;
-		private final Function<T, Fetch<U>> function;
-		private Fetch<U> inner;
-
-		public SelectManyFetch(Fetch<T> fetch, Function<T, Fetch<U>> function) {
-			this.fetch = fetch;
-			this.function = function;
-			this.inner = new EmptyFetch<U>();
+	public static final class EmptyFetch<T> extends Fetch<T> {
+		@Override
+		protected final Holder<T> internalNext() {
+			return Holder.none();
 		}
 
 		@Override
-		protected final Holder<U> internalNext() {
-			while (true) {
-				var holder = inner.next();
+		protected final void internalClose() {
+		}
+	}
 
-				if (holder.exists()) {
-					return holder;
-				}
+	static final class EventRecording implements FlightRecorderListener {
+		static boolean listen() {
+			try {
+				FlightRecorder.addListener(new EventRecording());
+				return true;
+			} catch (NoClassDefFoundError | SecurityException e) {
+				return false;
+			}
+		}
 
-				var innerHolder = fetch.next();
+		static Object begin() {
+			var event = new QueryEvent();
+			event.begin();
+			return event;
+		}
 
-				if (!innerHolder.exists()) {
-					return holder;
-				}
+		static void commit(Object current, String query, String stage, long pulled, long emitted) {
+			var event = (QueryEvent) current;
+			event.query = query;
+			event.stage = stage;
+			event.pulled = pulled;
+			event.emitted = emitted;
+			event.commit();
+		}
 
-				inner = function.apply(innerHolder.value());
+		static void materialize(String query, String stage, long size, long materialization) {
+			var event = new MaterializeEvent();
+
+			if (event.shouldCommit()) {
+				event.query = query;
+				event.stage = stage;
+				event.size = size;
+				event.materialization = materialization;
+				event.commit();
 			}
 		}
 
 		@Override
-		protected final void internalClose() {
-			try (var _iterator = fetch;
-					var _inner = inner) {
-			}
+		public final void recorderInitialized(FlightRecorder recorder) {
+			update(recorder);
 		}
-	}
-
-	public static final class SkipFetch<T> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private final long count;
-		private long index;
 
-		public SkipFetch(Fetch<T> fetch, long count) {
-			this.fetch = fetch;
-			this.count = count;
-			this.index = 0L;
+		@Override
+		public final void recordingStateChanged(Recording recording) {
+			update(FlightRecorder.getFlightRecorder());
 		}
 
-		@Override
-		protected final Holder<T> internalNext() {
-			while (index < count) {
-				var holder = fetch.next();
+		private static void update(FlightRecorder recorder) {
+			var enabled = false;
 
-				if (!holder.exists()) {
-					return holder;
+			for (var recording : recorder.getRecordings()) {
+				if (recording.getState() == RecordingState.RUNNING) {
+					var settings = recording.getSettings();
+					enabled |= "true".equals(settings.get(QueryEvent.NAME + "#enabled"))
+							|| "true".equals(settings.get(MaterializeEvent.NAME + "#enabled"));
 				}
-
-				index++;
 			}
 
-			return fetch.next();
-		}
-
-		@Override
-		protected final void internalClose() {
-			fetch.close();
+			FetchAnalysis.events(enabled);
 		}
 	}
 
-	public static final class SkipLastFetch<T> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private final int count;
-		private ArrayDeque<Holder<T>> queue;
+	public static final class ExceptByFetch<T, K> extends Fetch<T> {
+		private final Fetch<T> left;
+		private final Fetch<T> right;
+		private final Function<T, K> keyFactory;
+		private Map<K, Holder<T>> map;
 
-		public SkipLastFetch(Fetch<T> fetch, int count) {
-			this.fetch = fetch;
-			this.count = count;
-			this.queue = null;
+		public ExceptByFetch(Fetch<T> left, Fetch<T> right, Function<T, K> keyFactory) {
+			this.left = left;
+			this.right = right;
+			this.keyFactory = keyFactory;
+			this.map = null;
 		}
 
 		@Override
 		protected final Holder<T> internalNext() {
-			if (queue == null) {
-				queue = new ArrayDeque<Holder<T>>(count);
+			if (map == null) {
+				map = new HashMap<K, Holder<T>>();
 
-				for (var i = 0; i < count; i++) {
-					var current = fetch.next();
+				while (true) {
+					var holder = right.next();
 
-					if (!current.exists()) {
-						return current;
+					if (!holder.exists()) {
+						break;
 					}
 
-					queue.addLast(current);
+					var key = keyFactory.apply(holder.value());
+					map.put(key, holder);
 				}
 			}
 
-			var current = fetch.next();
+			while (true) {
+				var holder = left.next();
 
-			if (current.exists()) {
-				var first = queue.removeFirst();
-				queue.addLast(current);
-				return first;
-			}
+				if (!holder.exists()) {
+					return holder;
+				}
 
-			return current;
+				var key = keyFactory.apply(holder.value());
+
+				if (!map.containsKey(key)) {
+					return holder;
+				}
+			}
 		}
 
 		@Override
 		protected final void internalClose() {
-			fetch.close();
+			try (var _left = left;
+					var _right = right) {
+			}
 		}
 	}
 
-	public static final class SkipWhileFetch<T> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private final Predicate<T> predicate;
-		private boolean skipped;
+	public static final class ExceptFetch<T> extends Fetch<T> {
+		private final Fetch<T> left;
+		private final Fetch<T> right;
+		private Set<Holder<T>> set;
 
-		public SkipWhileFetch(Fetch<T> fetch, Predicate<T> predicate) {
-			this.fetch = fetch;
-			this.predicate = predicate;
-			this.skipped = false;
+		public ExceptFetch(Fetch<T> left, Fetch<T> right) {
+			this.left = left;
+			this.right = right;
+			this.set = null;
 		}
 
 		@Override
 		protected final Holder<T> internalNext() {
-			if (!skipped) {
-				skipped = true;
+			if (set == null) {
+				set = new HashSet<Holder<T>>();
 
 				while (true) {
-					var holder = fetch.next();
+					var holder = right.next();
 
 					if (!holder.exists()) {
-						return holder;
+						break;
 					}
 
-					if (!predicate.test(holder.value())) {
-						return holder;
-					}
+					set.add(holder);
 				}
 			}
 
-			return fetch.next();
+			while (true) {
+				var holder = left.next();
+
+				if (!holder.exists()) {
+					return holder;
+				}
+
+				if (!set.contains(holder)) {
+					return holder;
+				}
+			}
 		}
 
 		@Override
 		protected final void internalClose() {
-			fetch.close();
+			try (var _left = left;
+					var _right = right) {
+			}
 		}
 	}
 
-	public static final class TakeFetch<T> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private final int count;
-		private int index;
+	public static abstract class Fetch<T> implements AutoCloseable {
+		private final FetchStats stats;
+		private boolean closed;
+		private Holder<T> peek;
 
-		public TakeFetch(Fetch<T> fetch, int count) {
-			this.fetch = fetch;
-			this.count = count;
-			this.index = 0;
+		protected Fetch() {
+			this.stats = FetchAnalysis.active() ? FetchAnalysis.register(this) : null;
 		}
 
-		@Override
-		protected final Holder<T> internalNext() {
-			if (index < count) {
-				var holder = fetch.next();
+		public final Holder<T> peek() {
+			if (closed) {
+				throw new IllegalStateException("already closed");
+			}
 
-				if (!holder.exists()) {
-					return holder;
-				}
+			if (peek == null) {
+				peek = pull();
+			}
 
-				index++;
-				return holder;
+			return peek;
+		}
+
+		public final Holder<T> next() {
+			if (closed) {
+				throw new IllegalStateException("already closed");
 			}
 
-			return Holder.none();
+			if (peek == null) {
+				var current = pull();
+				if (!current.exists()) {
+					close();
+				}
+				return current;
+			} else {
+				var current = peek;
+				if (!current.exists()) {
+					close();
+				}
+				peek = null;
+				return current;
+			}
 		}
 
-		@Override
-		protected final void internalClose() {
-			fetch.close();
+		protected abstract Holder<T> internalNext();
+
+		protected final void buffered(long size) {
+			if (stats != null) {
+				stats.buffered(size);
+			}
 		}
-	}
 
-	public static final class TakeLastFetch<T> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private final int count;
-		private Queue<Holder<T>> queue;
+		private Holder<T> pull() {
+			if (stats == null || !stats.owned()) {
+				return internalNext();
+			}
 
-		public TakeLastFetch(Fetch<T> fetch, int count) {
-			this.fetch = fetch;
-			this.count = count;
-			this.queue = null;
+			var parent = stats.enter();
+			var start = System.nanoTime();
+
+			try {
+				var current = internalNext();
+				stats.emit(parent, current.exists() ? 1 : 0);
+				return current;
+			} finally {
+				stats.exit(System.nanoTime() - start);
+			}
 		}
 
-		@Override
-		protected final Holder<T> internalNext() {
-			if (queue == null) {
-				queue = new ArrayDeque<Holder<T>>(count);
+		private int pullBatch(Object[] batch, int offset, int length) {
+			if (stats == null || !stats.owned()) {
+				return internalNextBatch(batch, offset, length);
+			}
 
-				while (true) {
-					var holder = fetch.next();
+			var parent = stats.enter();
+			var start = System.nanoTime();
 
-					if (!holder.exists()) {
-						break;
-					}
+			try {
+				var count = internalNextBatch(batch, offset, length);
+				stats.emit(parent, count);
+				return count;
+			} finally {
+				stats.exit(System.nanoTime() - start);
+			}
+		}
 
-					if (queue.size() == count) {
-						queue.remove();
-					}
+		public final int nextBatch(Object[] batch) {
+			return nextBatch(batch, 0, batch.length);
+		}
 
-					queue.add(holder);
+		public final int nextBatch(Object[] batch, int offset, int length) {
+			if (closed) {
+				throw new IllegalStateException("already closed");
+			}
+
+			if (length <= 0) {
+				return 0;
+			}
+
+			if (peek != null) {
+				var current = peek;
+				peek = null;
+
+				if (!current.exists()) {
+					close();
+					return 0;
 				}
+
+				batch[offset] = current.value();
+				return 1;
 			}
 
-			if (queue.size() > 0) {
-				return queue.remove();
+			var count = pullBatch(batch, offset, length);
+
+			if (count == 0) {
+				close();
 			}
 
-			return Holder.none();
+			return count;
+		}
+
+		protected int internalNextBatch(Object[] batch, int offset, int length) {
+			var current = internalNext();
+
+			if (!current.exists()) {
+				return 0;
+			}
+
+			batch[offset] = current.value();
+			return 1;
 		}
 
 		@Override
-		protected final void internalClose() {
-			fetch.close();
+		public final void close() {
+			if (!closed) {
+				closed = true;
+
+				if (stats != null) {
+					stats.close();
+				}
+
+				internalClose();
+			}
 		}
+
+		protected abstract void internalClose();
+
 	}
 
-	public static final class TakeWhileFetch<T> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private final Predicate<T> predicate;
-		private boolean terminated;
+	static final class FetchAnalysis {
+		private static final ThreadLocal<FetchAnalysis> CURRENT = new ThreadLocal<FetchAnalysis>();
+		private static final ThreadLocal<String> QUERY = new ThreadLocal<String>();
+		private static final ThreadLocal<List<FetchStats>> STACK = ThreadLocal.withInitial(ArrayList::new);
+		private static final AtomicInteger ACTIVE = new AtomicInteger(0);
+		private static volatile MetricsSink sink;
+		private static volatile boolean events;
+		private static boolean listening;
+		private final FetchAnalysis previous;
+		private final Thread owner;
+		private final List<FetchStats> stages;
+		private final List<FetchStats> stack;
+
+		private FetchAnalysis(FetchAnalysis previous) {
+			this.previous = previous;
+			this.owner = Thread.currentThread();
+			this.stages = new ArrayList<FetchStats>();
+			this.stack = new ArrayList<FetchStats>();
+		}
+
+		static boolean active() {
+			return ACTIVE.get() > 0;
+		}
+
+		static FetchStats register(Fetch<?> fetch) {
+			if (fetch instanceof NamedFetch) {
+				return null;
+			}
 
-		public TakeWhileFetch(Fetch<T> fetch, Predicate<T> predicate) {
-			this.fetch = fetch;
-			this.predicate = predicate;
-			this.terminated = false;
-		}
+			var analysis = CURRENT.get();
 
-		@Override
-		protected final Holder<T> internalNext() {
-			if (terminated) {
-				return Holder.none();
+			if (analysis == null) {
+				var current = sink();
+				var recording = events();
+				return current == null && !recording ? null
+						: new FetchStats(fetch.getClass().getSimpleName(), QUERY.get(), null, current, recording);
 			}
 
-			var holder = fetch.next();
+			var stats = new FetchStats(fetch.getClass().getSimpleName(), QUERY.get(), analysis, null, false);
+			analysis.stages.add(stats);
+			return stats;
+		}
 
-			if (holder.exists()) {
-				if (predicate.test(holder.value())) {
-					return holder;
-				} else {
-					terminated = true;
-					return Holder.none();
-				}
+		static MetricsSink sink() {
+			return sink;
+		}
+
+		static synchronized void sink(MetricsSink value) {
+			if (sink == null && value != null) {
+				ACTIVE.incrementAndGet();
+			} else if (sink != null && value == null) {
+				ACTIVE.decrementAndGet();
 			}
 
-			return holder;
+			sink = value;
 		}
 
-		@Override
-		protected final void internalClose() {
-			fetch.close();
+		static boolean events() {
+			return events;
 		}
-	}
 
-	public static final class Tuple2<T1, T2> {
-		public final T1 value1;
-		public final T2 value2;
+		static synchronized void events(boolean value) {
+			if (!events && value) {
+				ACTIVE.incrementAndGet();
+			} else if (events && !value) {
+				ACTIVE.decrementAndGet();
+			}
 
-		public Tuple2(T1 value1, T2 value2) {
-			this.value1 = value1;
-			this.value2 = value2;
+			events = value;
 		}
 
-		@Override
-		public final boolean equals(Object obj) {
-			if (this == obj)
-				return true;
-			if (obj == null)
-				return false;
-			if (getClass() != obj.getClass())
-				return false;
-			@SuppressWarnings("unchecked")
-			Tuple2<T1, T2> other = (Tuple2<T1, T2>) obj;
-			return Objects.equals(value1, other.value1) && Objects.equals(value2, other.value2);
+		static synchronized boolean listen() {
+			if (!listening) {
+				listening = ModuleLayer.boot().findModule("jdk.jfr").isPresent() && EventRecording.listen();
+			}
+
+			return listening;
+		}
+
+		static <T> Fetch<T> named(String query, Supplier<Fetch<T>> supplier) {
+			if (!active()) {
+				return supplier.get();
+			}
+
+			var previous = QUERY.get();
+			QUERY.set(query);
+
+			try {
+				return supplier.get();
+			} finally {
+				if (previous == null) {
+					QUERY.remove();
+				} else {
+					QUERY.set(previous);
+				}
+			}
+		}
+
+		static FetchAnalysis begin() {
+			var analysis = new FetchAnalysis(CURRENT.get());
+			CURRENT.set(analysis);
+			ACTIVE.incrementAndGet();
+			return analysis;
+		}
+
+		final void end() {
+			ACTIVE.decrementAndGet();
+
+			if (previous == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		}
+
+		final List<FetchStats> stages() {
+			return stages;
+		}
+
+		final void format(StringBuilder builder) {
+			for (var stage : stages) {
+				if (stage.parent == null) {
+					stage.format(builder, 1);
+				}
+			}
+		}
+	}
+
+	public static final class FetchIterator<T> implements Iterator<T>, AutoCloseable {
+		private final Fetch<T> fetch;
+
+		public FetchIterator(Fetch<T> fetch) {
+			this.fetch = fetch;
 		}
 
 		@Override
-		public final int hashCode() {
-			return Objects.hash(value1, value2);
+		public final boolean hasNext() {
+			return fetch.peek().exists();
 		}
 
 		@Override
-		public final String toString() {
-			return "Tuple2 [value1=" + value1 + ", value2=" + value2 + "]";
+		public final T next() {
+			return fetch.next().value();
+		}
+
+		@Override
+		public void close() {
+			fetch.close();
 		}
 	}
 
-	public static final class TypeFetch<T, U> extends Fetch<U> {
-		private final Fetch<T> fetch;
-		private final Class<U> type;
+	public static final class FetchPublisher<T> implements Flow.Publisher<T> {
+		private final Linq<T> linq;
 
-		public TypeFetch(Fetch<T> fetch, Class<U> type) {
+		public FetchPublisher(Linq<T> linq) {
+			this.linq = linq;
+		}
+
+		@Override
+		public final void subscribe(Flow.Subscriber<? super T> subscriber) {
+			Objects.requireNonNull(subscriber);
+			subscriber.onSubscribe(new FetchSubscription<T>(linq, subscriber));
+		}
+	}
+
+	static final class FetchStats {
+		final String name;
+		final String query;
+		final List<FetchStats> children;
+		private final FetchAnalysis analysis;
+		private final MetricsSink sink;
+		private final boolean events;
+		private Object event;
+		private long started;
+		FetchStats parent;
+		long rowsIn;
+		long rowsOut;
+		long nanos;
+		long buffered;
+		int closes;
+
+		FetchStats(String name, String query, FetchAnalysis analysis, MetricsSink sink, boolean events) {
+			this.name = name;
+			this.query = query;
+			this.analysis = analysis;
+			this.sink = sink;
+			this.events = events;
+			this.children = new ArrayList<FetchStats>();
+		}
+
+		static String millis(long nanos) {
+			return String.format(Locale.ROOT, "%.3fms", nanos / 1e6);
+		}
+
+		final boolean owned() {
+			return analysis == null || Thread.currentThread() == analysis.owner;
+		}
+
+		private List<FetchStats> stack() {
+			return analysis != null ? analysis.stack : FetchAnalysis.STACK.get();
+		}
+
+		final FetchStats enter() {
+			var stack = stack();
+			var parent = stack.isEmpty() ? null : stack.get(stack.size() - 1);
+
+			if (analysis != null && parent != null && parent != this && this.parent == null) {
+				this.parent = parent;
+				parent.children.add(this);
+			}
+
+			if (events && started == 0L) {
+				started = System.nanoTime();
+
+				if (parent == null) {
+					event = EventRecording.begin();
+				}
+			}
+
+			stack.add(this);
+			return parent;
+		}
+
+		final void emit(FetchStats parent, long rows) {
+			rowsOut += rows;
+
+			if (parent != null) {
+				parent.rowsIn += rows;
+			}
+		}
+
+		final void exit(long elapsed) {
+			var stack = stack();
+			stack.remove(stack.size() - 1);
+			nanos += elapsed;
+		}
+
+		final void buffered(long size) {
+			if (owned() && size > buffered) {
+				buffered = size;
+
+				if (events) {
+					EventRecording.materialize(query, name, size, System.nanoTime() - started);
+				}
+			}
+		}
+
+		final void close() {
+			if (owned()) {
+				closes++;
+
+				if (sink != null) {
+					sink.record(new StageMetrics(query, name, rowsIn, rowsOut, nanos, buffered, closes));
+				}
+
+				if (event != null) {
+					EventRecording.commit(event, query, name, rowsIn, rowsOut);
+					event = null;
+				}
+			}
+		}
+
+		final void format(StringBuilder builder, int depth) {
+			builder.append("  ".repeat(depth)).append(name)
+					.append(" in=").append(rowsIn)
+					.append(" out=").append(rowsOut);
+
+			if (buffered > 0) {
+				builder.append(" buffered=").append(buffered);
+			}
+
+			builder.append(" time=").append(millis(nanos)).append('\n');
+
+			for (var child : children) {
+				child.format(builder, depth + 1);
+			}
+		}
+	}
+
+	public static final class FetchSubscription<T> implements Flow.Subscription {
+		private final Linq<T> linq;
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicLong requested;
+		private final AtomicInteger wip;
+		private volatile boolean cancelled;
+		private volatile Throwable invalid;
+		private Fetch<T> fetch;
+		private boolean done;
+
+		public FetchSubscription(Linq<T> linq, Flow.Subscriber<? super T> subscriber) {
+			this.linq = linq;
+			this.subscriber = subscriber;
+			this.requested = new AtomicLong(0L);
+			this.wip = new AtomicInteger(0);
+			this.cancelled = false;
+			this.invalid = null;
+			this.fetch = null;
+			this.done = false;
+		}
+
+		@Override
+		public final void request(long n) {
+			if (n <= 0) {
+				invalid = new IllegalArgumentException("non-positive request: " + n);
+			} else {
+				requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+			}
+
+			drain();
+		}
+
+		@Override
+		public final void cancel() {
+			cancelled = true;
+			drain();
+		}
+
+		private void drain() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+
+			var missed = 1;
+
+			do {
+				if (!done) {
+					emit();
+				}
+
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void emit() {
+			try {
+				if (cancelled) {
+					finish();
+					return;
+				}
+
+				if (invalid != null) {
+					finish();
+					subscriber.onError(invalid);
+					return;
+				}
+
+				if (fetch == null) {
+					fetch = linq.fetch();
+				}
+
+				while (requested.get() > 0 && !cancelled) {
+					var holder = fetch.next();
+
+					if (!holder.exists()) {
+						finish();
+						subscriber.onComplete();
+						return;
+					}
+
+					if (holder.value() == null) {
+						finish();
+						subscriber.onError(new NullPointerException("null element"));
+						return;
+					}
+
+					subscriber.onNext(holder.value());
+
+					if (requested.get() != Long.MAX_VALUE) {
+						requested.decrementAndGet();
+					}
+				}
+
+				if (cancelled) {
+					finish();
+				}
+			} catch (RuntimeException e) {
+				finish();
+				subscriber.onError(e);
+			}
+		}
+
+		private void finish() {
+			done = true;
+
+			try (var _fetch = fetch) {
+				fetch = null;
+			}
+		}
+	}
+
+	public static final class FusedFetch<T> extends Fetch<T> {
+		private static final byte WHERE = 0;
+		private static final byte SELECT = 1;
+		private static final byte TYPE = 2;
+		private static final byte SKIP = 3;
+		private static final byte TAKE = 4;
+		private static final byte CAST = 5;
+		private static final byte SELECT_WHERE = 6;
+		private static final Object SKIPPED = new Object();
+
+		private final Fetch<?> fetch;
+		private final byte[] codes;
+		private final Object[] arguments;
+		private final long[] counters;
+
+		public FusedFetch(Fetch<?> fetch, String[] operators, Object[] arguments) {
 			this.fetch = fetch;
-			this.type = type;
+			this.codes = new byte[operators.length];
+			this.arguments = arguments;
+			this.counters = new long[operators.length];
+
+			for (var i = 0; i < operators.length; i++) {
+				switch (operators[i]) {
+				case "where":
+					codes[i] = WHERE;
+					break;
+				case "select":
+					codes[i] = SELECT;
+					break;
+				case "ofType":
+					codes[i] = TYPE;
+					break;
+				case "skip":
+					codes[i] = SKIP;
+					break;
+				case "take":
+					codes[i] = TAKE;
+					break;
+				case "cast":
+					codes[i] = CAST;
+					break;
+				case "selectWhere":
+					codes[i] = SELECT_WHERE;
+					break;
+				default:
+					throw new IllegalArgumentException("unsupported operator: " + operators[i]);
+				}
+			}
 		}
 
 		@Override
-		protected final Holder<U> internalNext() {
-			while (true) {
+		@SuppressWarnings("unchecked")
+		protected final Holder<T> internalNext() {
+			next: while (true) {
+				for (var i = 0; i < codes.length; i++) {
+					if (codes[i] == TAKE && counters[i] >= ((Number) arguments[i]).longValue()) {
+						return Holder.none();
+					}
+				}
+
 				var holder = fetch.next();
 
 				if (!holder.exists()) {
-					break;
+					return Holder.none();
 				}
 
-				if (type.isInstance(holder.value())) {
-					return Holder.of(type.cast(holder.value()));
+				var value = apply(holder.value());
+
+				if (value == SKIPPED) {
+					continue next;
 				}
+
+				return Holder.of((T) value);
 			}
+		}
 
-			return Holder.none();
+		@Override
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			while (true) {
+				var quota = (long) length;
+
+				for (var i = 0; i < codes.length; i++) {
+					if (codes[i] == TAKE) {
+						quota = Math.min(quota, ((Number) arguments[i]).longValue() - counters[i]);
+					}
+				}
+
+				if (quota <= 0) {
+					return 0;
+				}
+
+				var count = fetch.nextBatch(batch, offset, (int) quota);
+
+				if (count == 0) {
+					return 0;
+				}
+
+				var size = 0;
+
+				for (var i = offset; i < offset + count; i++) {
+					var value = apply(batch[i]);
+
+					if (value != SKIPPED) {
+						batch[offset + size++] = value;
+					}
+				}
+
+				if (size > 0) {
+					return size;
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private Object apply(Object value) {
+			for (var i = 0; i < codes.length; i++) {
+				switch (codes[i]) {
+				case WHERE:
+					if (!((Predicate<Object>) arguments[i]).test(value)) {
+						return SKIPPED;
+					}
+					break;
+				case SELECT:
+					value = ((Function<Object, Object>) arguments[i]).apply(value);
+					break;
+				case TYPE:
+					if (!((Class<?>) arguments[i]).isInstance(value)) {
+						return SKIPPED;
+					}
+					break;
+				case SKIP:
+					if (counters[i] < ((Number) arguments[i]).longValue()) {
+						counters[i]++;
+						return SKIPPED;
+					}
+					break;
+				case TAKE:
+					counters[i]++;
+					break;
+				case SELECT_WHERE:
+					var stage = (Tuple2<Function<Object, Object>, Predicate<Object>>) arguments[i];
+					value = stage.value1.apply(value);
+
+					if (!stage.value2.test(value)) {
+						return SKIPPED;
+					}
+					break;
+				default:
+					break;
+				}
+			}
+
+			return value;
 		}
 
 		@Override
@@ -1358,225 +2456,4469 @@ public class Linq<T> {
 		}
 	}
 
-	public static final class UnionByFetch<T, K> extends Fetch<T> {
-		private final Fetch<T> left;
-		private final Fetch<T> right;
+	public static final class GroupByFetch<T, K> extends Fetch<Entry<K, List<T>>> {
+		private final Fetch<T> fetch;
 		private final Function<T, K> keyFactory;
-		private Iterator<Holder<T>> iterator;
+		private Iterator<Entry<K, List<T>>> entries;
 
-		public UnionByFetch(Fetch<T> left, Fetch<T> right, Function<T, K> keyFactory) {
-			this.left = left;
-			this.right = right;
+		public GroupByFetch(Fetch<T> fetch, Function<T, K> keyFactory) {
+			this.fetch = fetch;
 			this.keyFactory = keyFactory;
-			this.iterator = null;
+			this.entries = null;
+		}
+
+		@Override
+		protected final Holder<Entry<K, List<T>>> internalNext() {
+			if (entries == null) {
+				var map = new LinkedHashMap<K, List<T>>();
+				var count = 0L;
+
+				while (true) {
+					var holder = fetch.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					var key = keyFactory.apply(holder.value());
+					var values = map.get(key);
+
+					if (values == null) {
+						values = new ArrayList<T>();
+						map.put(key, values);
+					}
+
+					values.add(holder.value());
+					count++;
+				}
+
+				buffered(count);
+				entries = map.entrySet().iterator();
+			}
+
+			if (entries.hasNext()) {
+				return Holder.of(entries.next());
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class GroupJoinFetch<TLeft, TRight, TKey, TResult> extends Fetch<TResult> {
+		private final Fetch<TLeft> left;
+		private final Fetch<TRight> right;
+		private final Function<TLeft, TKey> leftKeyFactory;
+		private final Function<TRight, TKey> rightKeyFactory;
+		private final BiFunction<TLeft, Linq<TRight>, TResult> resultFactory;
+		private Map<TKey, List<TRight>> map;
+
+		public GroupJoinFetch(
+				Fetch<TLeft> left,
+				Fetch<TRight> right,
+				Function<TLeft, TKey> leftKeyFactory,
+				Function<TRight, TKey> rightKeyFactory,
+				BiFunction<TLeft, Linq<TRight>, TResult> resultFactory) {
+			this.left = left;
+			this.right = right;
+			this.leftKeyFactory = leftKeyFactory;
+			this.rightKeyFactory = rightKeyFactory;
+			this.resultFactory = resultFactory;
+			this.map = null;
+		}
+
+		@Override
+		protected final Holder<TResult> internalNext() {
+			if (map == null) {
+				map = new LinkedHashMap<TKey, List<TRight>>();
+
+				while (true) {
+					var holder = right.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					var key = rightKeyFactory.apply(holder.value());
+					var values = map.get(key);
+
+					if (values == null) {
+						values = new ArrayList<TRight>();
+						map.put(key, values);
+					}
+
+					values.add(holder.value());
+				}
+			}
+
+			var holder = left.next();
+
+			if (holder.exists()) {
+				var key = leftKeyFactory.apply(holder.value());
+				var values = map.get(key);
+
+				if (values == null) {
+					values = new ArrayList<TRight>();
+				}
+
+				return Holder.of(resultFactory.apply(holder.value(), Linq.from(values)));
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+			try (var _left = left;
+					var _right = right) {
+			}
+		}
+	}
+
+	public static final class Holder<T> {
+		private static final Holder<?> NONE = new Holder<Object>(null, false);
+
+		@SuppressWarnings("unchecked")
+		public static final <T> Holder<T> none() {
+			return (Holder<T>) NONE;
+		}
+
+		public static final <T> Holder<T> of(T value) {
+			return new Holder<T>(value, true);
+		}
+
+		private final T value;
+		private final boolean exist;
+
+		private Holder(T value, boolean exist) {
+			this.value = value;
+			this.exist = exist;
+		}
+
+		public final boolean exists() {
+			return exist;
+		}
+
+		public final T value() {
+			if (exist) {
+				return value;
+			}
+			throw new NoSuchElementException();
+		}
+
+		@Override
+		public final int hashCode() {
+			return Objects.hash(exist, value);
+		}
+
+		@Override
+		public final boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Holder)) {
+				return false;
+			}
+			@SuppressWarnings("unchecked")
+			var other = (Holder<T>) obj;
+			return exist == other.exist && Objects.equals(value, other.value);
+		}
+
+	}
+
+	public static final class IntArrayFetch extends Fetch<Integer> {
+		private final int[] array;
+		private final int lower;
+		private final int upper;
+		private final boolean filtered;
+		private int index;
+
+		public IntArrayFetch(int[] array, int lower, int upper, boolean filtered) {
+			this.array = array;
+			this.lower = lower;
+			this.upper = upper;
+			this.filtered = filtered;
+			this.index = 0;
+		}
+
+		@Override
+		protected final Holder<Integer> internalNext() {
+			while (index < array.length) {
+				var value = array[index++];
+
+				if (!filtered || (value >= lower && value <= upper)) {
+					return Holder.of(value);
+				}
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+		}
+	}
+
+	public static final class IntersectByFetch<TLeft, TKey> extends Fetch<TLeft> {
+		private final Fetch<TLeft> left;
+		private final Fetch<TKey> right;
+		private final Function<TLeft, TKey> keyFactory;
+		private Set<TKey> set;
+
+		public IntersectByFetch(
+				Fetch<TLeft> left,
+				Fetch<TKey> right,
+				Function<TLeft, TKey> keyFactory) {
+			this.left = left;
+			this.right = right;
+			this.keyFactory = keyFactory;
+			this.set = null;
+		}
+
+		@Override
+		protected final Holder<TLeft> internalNext() {
+			if (set == null) {
+				set = new HashSet<TKey>();
+
+				while (true) {
+					var holder = right.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					set.add(holder.value());
+				}
+			}
+
+			while (true) {
+				var holder = left.next();
+
+				if (!holder.exists()) {
+					return holder;
+				}
+
+				var key = keyFactory.apply(holder.value());
+
+				if (set.contains(key)) {
+					return holder;
+				}
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			try (var _left = left;
+					var _right = right) {
+			}
+		}
+	}
+
+	public static final class IntersectFetch<T> extends Fetch<T> {
+		private final Fetch<T> left;
+		private final Fetch<T> right;
+		private Set<Holder<T>> set;
+
+		public IntersectFetch(Fetch<T> left, Fetch<T> right) {
+			this.left = left;
+			this.right = right;
+			this.set = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (set == null) {
+				set = new HashSet<Holder<T>>();
+
+				while (true) {
+					var holder = right.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					set.add(holder);
+				}
+			}
+
+			while (true) {
+				var holder = left.next();
+
+				if (!holder.exists()) {
+					return holder;
+				}
+
+				if (set.contains(holder)) {
+					return holder;
+				}
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			try (var _left = left;
+					var _right = right) {
+			}
+		}
+	}
+
+	public static final class IterableFetch<T> extends Fetch<T> {
+		private final Iterable<T> iterable;
+		private Iterator<T> iterator;
+
+		public IterableFetch(Iterable<T> iterable) {
+			this.iterable = iterable;
+			this.iterator = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (iterator == null) {
+				iterator = iterable.iterator();
+			}
+
+			if (iterator.hasNext()) {
+				return Holder.of(iterator.next());
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+		}
+	}
+
+	public static final class StreamFetch<T> extends Fetch<T> {
+		private final Stream<T> stream;
+		private Iterator<T> iterator;
+
+		public StreamFetch(Stream<T> stream) {
+			this.stream = stream;
+			this.iterator = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (iterator == null) {
+				iterator = stream.iterator();
+			}
+
+			if (iterator.hasNext()) {
+				return Holder.of(iterator.next());
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+			stream.close();
+		}
+	}
+
+	public static final class JmxMetricsSink implements MetricsSink, AutoCloseable {
+		private final MBeanServer server;
+		private final String domain;
+		private final ConcurrentHashMap<String, QueryMetrics> queries;
+
+		public JmxMetricsSink() {
+			this(ManagementFactory.getPlatformMBeanServer(), "linq");
+		}
+
+		public JmxMetricsSink(MBeanServer server, String domain) {
+			this.server = server;
+			this.domain = domain;
+			this.queries = new ConcurrentHashMap<String, QueryMetrics>();
+		}
+
+		public static ObjectName objectName(String domain, String query) {
+			try {
+				return new ObjectName(domain + ":type=QueryMetrics,name=" + ObjectName.quote(query));
+			} catch (MalformedObjectNameException e) {
+				throw new IllegalArgumentException(e);
+			}
+		}
+
+		@Override
+		public final void record(StageMetrics metrics) {
+			queries.computeIfAbsent(metrics.query == null ? "unnamed" : metrics.query, this::register).add(metrics);
+		}
+
+		private QueryMetrics register(String query) {
+			var metrics = new QueryMetrics(query);
+			var name = objectName(domain, query);
+
+			try {
+				var bean = new StandardMBean(metrics, QueryMetricsMXBean.class, true);
+
+				try {
+					server.registerMBean(bean, name);
+				} catch (InstanceAlreadyExistsException e) {
+					server.unregisterMBean(name);
+					server.registerMBean(bean, name);
+				}
+			} catch (JMException | RuntimeException e) {
+				return metrics;
+			}
+
+			return metrics;
+		}
+
+		public final Map<String, QueryMetrics> queries() {
+			return Collections.unmodifiableMap(queries);
+		}
+
+		@Override
+		public final void close() {
+			for (var query : queries.keySet()) {
+				try {
+					server.unregisterMBean(objectName(domain, query));
+				} catch (InstanceNotFoundException e) {
+					continue;
+				} catch (JMException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+
+			queries.clear();
+		}
+	}
+
+	public static final class JoinFetch<TLeft, TRight, TKey, TResult> extends Fetch<TResult> {
+		private final Fetch<TLeft> left;
+		private final Fetch<TRight> right;
+		private final Function<TLeft, TKey> leftKeyFactory;
+		private final Function<TRight, TKey> rightKeyFactory;
+		private final BiFunction<TLeft, Linq<TRight>, TResult> resultFactory;
+		private Map<TKey, List<TRight>> map;
+
+		public JoinFetch(
+				Fetch<TLeft> left,
+				Fetch<TRight> right,
+				Function<TLeft, TKey> leftKeyFactory,
+				Function<TRight, TKey> rightKeyFactory,
+				BiFunction<TLeft, Linq<TRight>, TResult> resultFactory) {
+			this.left = left;
+			this.right = right;
+			this.leftKeyFactory = leftKeyFactory;
+			this.rightKeyFactory = rightKeyFactory;
+			this.resultFactory = resultFactory;
+			this.map = null;
+		}
+
+		@Override
+		protected final Holder<TResult> internalNext() {
+			if (map == null) {
+				map = new LinkedHashMap<>();
+
+				while (true) {
+					var holder = right.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					var key = rightKeyFactory.apply(holder.value());
+					var values = map.get(key);
+
+					if (values == null) {
+						values = new ArrayList<TRight>();
+						map.put(key, values);
+					}
+
+					values.add(holder.value());
+				}
+			}
+
+			while (true) {
+				var holder = left.next();
+
+				if (!holder.exists()) {
+					return Holder.none();
+				}
+
+				var key = leftKeyFactory.apply(holder.value());
+				var values = map.get(key);
+
+				if (values != null) {
+					return Holder.of(resultFactory.apply(holder.value(), Linq.from(values)));
+				}
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			try (var _left = left;
+					var _right = right) {
+			}
+		}
+	}
+
+	public static final class JsonLine {
+		private final ByteBuffer buffer;
+		private final int start;
+		private final int end;
+		private String[] keys;
+		private int[] starts;
+		private int[] ends;
+		private int count;
+		private int position;
+
+		public JsonLine(Line line) {
+			this(line.buffer, line.offset, line.offset + line.length);
+		}
+
+		public JsonLine(String json) {
+			this(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+		}
+
+		private JsonLine(ByteBuffer buffer) {
+			this(buffer, buffer.position(), buffer.limit());
+		}
+
+		private JsonLine(ByteBuffer buffer, int start, int end) {
+			this.buffer = buffer;
+			this.start = start;
+			this.end = end;
+			this.keys = null;
+			this.starts = null;
+			this.ends = null;
+			this.count = 0;
+			this.position = 0;
+		}
+
+		public final boolean has(String key) {
+			return find(key) >= 0;
+		}
+
+		public final boolean isNull(String key) {
+			var index = require(key);
+			return at(starts[index]) == 'n';
+		}
+
+		public final String getRaw(String key) {
+			var index = require(key);
+			return decode(starts[index], ends[index]);
+		}
+
+		public final String getString(String key) {
+			var index = require(key);
+			var b = at(starts[index]);
+
+			if (b == 'n') {
+				return null;
+			}
+
+			if (b == '"') {
+				return string(starts[index], ends[index]);
+			}
+
+			return decode(starts[index], ends[index]);
+		}
+
+		public final long getLong(String key) {
+			var index = require(key);
+			var i = starts[index];
+			var e = ends[index];
+			var negative = at(i) == '-';
+
+			if (negative) {
+				i++;
+			}
+
+			if (i == e || e - i > 18) {
+				return Long.parseLong(decode(starts[index], e));
+			}
+
+			var result = 0L;
+
+			for (; i < e; i++) {
+				var digit = at(i) - '0';
+
+				if (digit < 0 || digit > 9) {
+					return Long.parseLong(decode(starts[index], e));
+				}
+
+				result = result * 10 + digit;
+			}
+
+			return negative ? -result : result;
+		}
+
+		public final int getInt(String key) {
+			return Math.toIntExact(getLong(key));
+		}
+
+		public final double getDouble(String key) {
+			return Double.parseDouble(getRaw(key));
+		}
+
+		public final boolean getBoolean(String key) {
+			var index = require(key);
+			var b = at(starts[index]);
+
+			if (b == 't' || b == 'f') {
+				return b == 't';
+			}
+
+			throw new IllegalStateException("not a boolean: " + key);
+		}
+
+		public final Object get(String key) {
+			var index = require(key);
+			position = starts[index];
+			return value();
+		}
+
+		public final LinkedHashMap<String, Object> toMap() {
+			index();
+			var map = new LinkedHashMap<String, Object>();
+
+			for (var i = 0; i < count; i++) {
+				position = starts[i];
+				map.put(keys[i], value());
+			}
+
+			return map;
+		}
+
+		@Override
+		public final String toString() {
+			return decode(start, end);
+		}
+
+		private int require(String key) {
+			var index = find(key);
+
+			if (index < 0) {
+				throw new NoSuchElementException(key);
+			}
+
+			return index;
+		}
+
+		private int find(String key) {
+			index();
+
+			for (var i = 0; i < count; i++) {
+				if (keys[i].equals(key)) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+
+		private void index() {
+			if (keys != null) {
+				return;
+			}
+
+			keys = new String[8];
+			starts = new int[8];
+			ends = new int[8];
+
+			var i = skip(start);
+			expect(i, '{');
+			i = skip(i + 1);
+
+			if (at(i) == '}') {
+				finish(i + 1);
+				return;
+			}
+
+			while (true) {
+				expect(i, '"');
+				var keyEnd = skipString(i);
+				var key = string(i, keyEnd);
+				i = skip(keyEnd);
+				expect(i, ':');
+				i = skip(i + 1);
+				var valueEnd = skipValue(i);
+
+				if (count == keys.length) {
+					keys = Arrays.copyOf(keys, count * 2);
+					starts = Arrays.copyOf(starts, count * 2);
+					ends = Arrays.copyOf(ends, count * 2);
+				}
+
+				keys[count] = key;
+				starts[count] = i;
+				ends[count] = valueEnd;
+				count++;
+
+				i = skip(valueEnd);
+
+				if (at(i) == ',') {
+					i = skip(i + 1);
+					continue;
+				}
+
+				expect(i, '}');
+				finish(i + 1);
+				return;
+			}
+		}
+
+		private void finish(int i) {
+			i = skip(i);
+
+			if (i < end) {
+				throw new IllegalStateException("unexpected trailing data at " + (i - start));
+			}
+		}
+
+		private byte at(int i) {
+			if (i >= end) {
+				throw new IllegalStateException("unexpected end of json");
+			}
+			return buffer.get(i);
+		}
+
+		private void expect(int i, char c) {
+			if (at(i) != c) {
+				throw new IllegalStateException("expected '" + c + "' at " + (i - start));
+			}
+		}
+
+		private int skip(int i) {
+			while (i < end) {
+				var b = buffer.get(i);
+
+				if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+					break;
+				}
+
+				i++;
+			}
+
+			return i;
+		}
+
+		private int skipString(int i) {
+			for (var j = i + 1;; j++) {
+				var b = at(j);
+
+				if (b == '\\') {
+					j++;
+				} else if (b == '"') {
+					return j + 1;
+				}
+			}
+		}
+
+		private int skipValue(int i) {
+			var b = at(i);
+
+			if (b == '"') {
+				return skipString(i);
+			}
+
+			if (b == '{' || b == '[') {
+				var depth = 0;
+
+				for (var j = i;; j++) {
+					b = at(j);
+
+					if (b == '"') {
+						j = skipString(j) - 1;
+					} else if (b == '{' || b == '[') {
+						depth++;
+					} else if ((b == '}' || b == ']') && --depth == 0) {
+						return j + 1;
+					}
+				}
+			}
+
+			var j = i;
+
+			while (j < end) {
+				b = buffer.get(j);
+
+				if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+					break;
+				}
+
+				j++;
+			}
+
+			if (j == i) {
+				throw new IllegalStateException("unexpected '" + (char) b + "' at " + (i - start));
+			}
+
+			return j;
+		}
+
+		private Object value() {
+			var i = skip(position);
+			var b = at(i);
+
+			if (b == '"') {
+				position = skipString(i);
+				return string(i, position);
+			}
+
+			if (b == '{') {
+				var map = new LinkedHashMap<String, Object>();
+				i = skip(i + 1);
+
+				if (at(i) == '}') {
+					position = i + 1;
+					return map;
+				}
+
+				while (true) {
+					expect(i, '"');
+					var keyEnd = skipString(i);
+					var key = string(i, keyEnd);
+					i = skip(keyEnd);
+					expect(i, ':');
+					position = i + 1;
+					map.put(key, value());
+					i = skip(position);
+
+					if (at(i) == ',') {
+						i = skip(i + 1);
+						continue;
+					}
+
+					expect(i, '}');
+					position = i + 1;
+					return map;
+				}
+			}
+
+			if (b == '[') {
+				var list = new ArrayList<Object>();
+				i = skip(i + 1);
+
+				if (at(i) == ']') {
+					position = i + 1;
+					return list;
+				}
+
+				while (true) {
+					position = i;
+					list.add(value());
+					i = skip(position);
+
+					if (at(i) == ',') {
+						i = skip(i + 1);
+						continue;
+					}
+
+					expect(i, ']');
+					position = i + 1;
+					return list;
+				}
+			}
+
+			position = skipValue(i);
+			var text = decode(i, position);
+
+			switch (text) {
+			case "true":
+				return Boolean.TRUE;
+			case "false":
+				return Boolean.FALSE;
+			case "null":
+				return null;
+			default:
+				if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+					try {
+						return Long.parseLong(text);
+					} catch (NumberFormatException e) {
+					}
+				}
+				return Double.parseDouble(text);
+			}
+		}
+
+		private String decode(int from, int to) {
+			var bytes = new byte[to - from];
+			buffer.duplicate().position(from).get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		private String string(int from, int to) {
+			var text = decode(from + 1, to - 1);
+
+			if (text.indexOf('\\') < 0) {
+				return text;
+			}
+
+			var builder = new StringBuilder(text.length());
+
+			for (var i = 0; i < text.length(); i++) {
+				var c = text.charAt(i);
+
+				if (c != '\\') {
+					builder.append(c);
+					continue;
+				}
+
+				c = text.charAt(++i);
+
+				switch (c) {
+				case 'b':
+					builder.append('\b');
+					break;
+				case 'f':
+					builder.append('\f');
+					break;
+				case 'n':
+					builder.append('\n');
+					break;
+				case 'r':
+					builder.append('\r');
+					break;
+				case 't':
+					builder.append('\t');
+					break;
+				case 'u':
+					builder.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+					i += 4;
+					break;
+				default:
+					builder.append(c);
+					break;
+				}
+			}
+
+			return builder.toString();
+		}
+	}
+
+	public static final class LatencyHistogram {
+		static final int SUB_BUCKET_BITS = 7;
+		static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+		static final int HALF_BUCKETS = SUB_BUCKETS / 2;
+		static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 2) * HALF_BUCKETS;
+		private final AtomicLongArray counts;
+		private final LongAdder sum;
+		private final AtomicLong max;
+
+		public LatencyHistogram() {
+			this.counts = new AtomicLongArray(BUCKETS);
+			this.sum = new LongAdder();
+			this.max = new AtomicLong(0);
+		}
+
+		static int index(long value) {
+			var shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+			return shift * HALF_BUCKETS + (int) (value >>> shift);
+		}
+
+		static long highest(int index) {
+			if (index < SUB_BUCKETS) {
+				return index;
+			}
+
+			var shift = index / HALF_BUCKETS - 1;
+			var sub = index - shift * HALF_BUCKETS;
+			var next = (long) (sub + 1) << shift;
+			return next <= 0 ? Long.MAX_VALUE : next - 1;
+		}
+
+		public final void record(long nanos) {
+			var value = Math.max(0L, nanos);
+			counts.incrementAndGet(index(value));
+			sum.add(value);
+			max.accumulateAndGet(value, Math::max);
+		}
+
+		public final void reset() {
+			for (var i = 0; i < BUCKETS; i++) {
+				counts.set(i, 0L);
+			}
+
+			sum.reset();
+			max.set(0L);
+		}
+
+		public final LatencySnapshot snapshot() {
+			var copy = new long[BUCKETS];
+			var count = 0L;
+
+			for (var i = 0; i < BUCKETS; i++) {
+				copy[i] = counts.get(i);
+				count += copy[i];
+			}
+
+			return new LatencySnapshot(copy, count, count == 0 ? 0.0 : (double) sum.sum() / count, max.get());
+		}
+	}
+
+	public static final class LatencySnapshot {
+		private final long[] counts;
+		public final long count;
+		public final double mean;
+		public final long max;
+
+		public LatencySnapshot(long[] counts, long count, double mean, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.mean = mean;
+			this.max = max;
+		}
+
+		public final long percentile(double percentile) {
+			if (percentile < 0.0 || percentile > 100.0) {
+				throw new IllegalArgumentException("percentile");
+			}
+
+			if (count == 0) {
+				return 0L;
+			}
+
+			var rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+			var seen = 0L;
+
+			for (var i = 0; i < counts.length; i++) {
+				seen += counts[i];
+
+				if (seen >= rank) {
+					return Math.min(LatencyHistogram.highest(i), max);
+				}
+			}
+
+			return max;
+		}
+
+		public final long p50() {
+			return percentile(50.0);
+		}
+
+		public final long p99() {
+			return percentile(99.0);
+		}
+
+		public final long p999() {
+			return percentile(99.9);
+		}
+
+		@Override
+		public final String toString() {
+			return "LatencySnapshot [count=" + count + ", mean=" + mean + ", p50=" + p50() + ", p99=" + p99()
+					+ ", p999=" + p999() + ", max=" + max + "]";
+		}
+	}
+
+	public static final class Line implements CharSequence {
+		private final ByteBuffer buffer;
+		private final int offset;
+		private final int length;
+		private final Charset charset;
+		private String string;
+		private int ascii;
+
+		public Line(ByteBuffer buffer, int offset, int length, Charset charset) {
+			this.buffer = buffer;
+			this.offset = offset;
+			this.length = length;
+			this.charset = charset;
+			this.string = null;
+			this.ascii = 0;
+		}
+
+		public final int byteLength() {
+			return length;
+		}
+
+		public final byte byteAt(int index) {
+			Objects.checkIndex(index, length);
+			return buffer.get(offset + index);
+		}
+
+		public final ByteBuffer asByteBuffer() {
+			return buffer.duplicate().position(offset).limit(offset + length).slice().asReadOnlyBuffer();
+		}
+
+		private boolean isAscii() {
+			if (ascii == 0) {
+				ascii = 1;
+
+				for (var i = 0; i < length; i++) {
+					if (buffer.get(offset + i) < 0) {
+						ascii = -1;
+						break;
+					}
+				}
+			}
+
+			return ascii > 0;
+		}
+
+		@Override
+		public final int length() {
+			if (isAscii()) {
+				return length;
+			}
+			return toString().length();
+		}
+
+		@Override
+		public final char charAt(int index) {
+			if (isAscii()) {
+				return (char) byteAt(index);
+			}
+			return toString().charAt(index);
+		}
+
+		@Override
+		public final CharSequence subSequence(int start, int end) {
+			if (isAscii()) {
+				Objects.checkFromToIndex(start, end, length);
+				return new Line(buffer, offset + start, end - start, charset);
+			}
+			return toString().subSequence(start, end);
+		}
+
+		@Override
+		public final String toString() {
+			if (string == null) {
+				var bytes = new byte[length];
+				buffer.duplicate().position(offset).get(bytes);
+				string = new String(bytes, charset);
+			}
+			return string;
+		}
+	}
+
+	public static final class LinesFetch extends Fetch<Line> {
+		private final Path path;
+		private final Charset charset;
+		private final int window;
+		private final long start;
+		private final long end;
+		private FileChannel channel;
+		private MappedByteBuffer buffer;
+		private long base;
+		private long size;
+		private int position;
+
+		public LinesFetch(Path path, Charset charset, int window) {
+			this(path, charset, window, 0L, Long.MAX_VALUE);
+		}
+
+		public LinesFetch(Path path, Charset charset, int window, long start, long end) {
+			this.path = path;
+			this.charset = charset;
+			this.window = window;
+			this.start = start;
+			this.end = end;
+			this.channel = null;
+			this.buffer = null;
+			this.base = 0L;
+			this.size = 0L;
+			this.position = 0;
+		}
+
+		@Override
+		protected final Holder<Line> internalNext() {
+			try {
+				if (channel == null) {
+					channel = FileChannel.open(path, StandardOpenOption.READ);
+					size = Math.min(end, channel.size());
+					base = Math.min(start, size);
+					buffer = map();
+				}
+
+				while (buffer != null) {
+					var limit = buffer.limit();
+
+					for (var i = position; i < limit; i++) {
+						if (buffer.get(i) == '\n') {
+							var line = line(position, i);
+							position = i + 1;
+							return Holder.of(line);
+						}
+					}
+
+					if (base + limit >= size) {
+						var current = buffer;
+						var start = position;
+						buffer = null;
+
+						if (start < limit) {
+							return Holder.of(new Line(current, start, end(current, start, limit) - start, charset));
+						}
+
+						break;
+					}
+
+					if (position == 0) {
+						throw new IllegalStateException("line too long: " + path);
+					}
+
+					base += position;
+					position = 0;
+					buffer = map();
+				}
+
+				return Holder.none();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private MappedByteBuffer map() throws IOException {
+			return channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(window, size - base));
+		}
+
+		private Line line(int start, int newline) {
+			return new Line(buffer, start, end(buffer, start, newline) - start, charset);
+		}
+
+		private static int end(ByteBuffer buffer, int start, int end) {
+			if (end > start && buffer.get(end - 1) == '\r') {
+				return end - 1;
+			}
+			return end;
+		}
+
+		@Override
+		protected final void internalClose() {
+			buffer = null;
+
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+	}
+
+	public static final class LongArrayFetch extends Fetch<Long> {
+		private final long[] array;
+		private final long lower;
+		private final long upper;
+		private final boolean filtered;
+		private int index;
+
+		public LongArrayFetch(long[] array, long lower, long upper, boolean filtered) {
+			this.array = array;
+			this.lower = lower;
+			this.upper = upper;
+			this.filtered = filtered;
+			this.index = 0;
+		}
+
+		@Override
+		protected final Holder<Long> internalNext() {
+			while (index < array.length) {
+				var value = array[index++];
+
+				if (!filtered || (value >= lower && value <= upper)) {
+					return Holder.of(value);
+				}
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+		}
+	}
+
+	@Name(MaterializeEvent.NAME)
+	@Label("Materialize")
+	@Category("Linq")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class MaterializeEvent extends Event {
+		static final String NAME = "linq.Materialize";
+
+		@Label("Query")
+		String query;
+
+		@Label("Stage")
+		String stage;
+
+		@Label("Size")
+		long size;
+
+		@Label("Materialization")
+		@Timespan(Timespan.NANOSECONDS)
+		long materialization;
+	}
+
+	public static final class MemoizeBuffer<T> {
+		private final Linq<T> source;
+		private final int limit;
+		private final ArrayList<T> list;
+		private Fetch<T> fetch;
+		private boolean started;
+		private boolean completed;
+		private boolean released;
+		private int consumers;
+
+		public MemoizeBuffer(Linq<T> source, int limit) {
+			if (limit < 0) {
+				throw new IllegalArgumentException("limit");
+			}
+
+			this.source = source;
+			this.limit = limit;
+			this.list = new ArrayList<T>();
+			this.fetch = null;
+			this.started = false;
+			this.completed = false;
+			this.released = false;
+			this.consumers = 0;
+		}
+
+		public final synchronized int size() {
+			return list.size();
+		}
+
+		final synchronized void attach() {
+			consumers++;
+		}
+
+		final synchronized void detach() {
+			consumers--;
+
+			if (released) {
+				closeIfUnused();
+			}
+		}
+
+		final synchronized void release() {
+			released = true;
+			closeIfUnused();
+		}
+
+		final synchronized Holder<T> get(int index) {
+			if (index < list.size()) {
+				return Holder.of(list.get(index));
+			}
+
+			if (completed) {
+				return Holder.none();
+			}
+
+			if (list.size() >= limit || (started && fetch == null)) {
+				return null;
+			}
+
+			if (fetch == null) {
+				fetch = source.fetch();
+				started = true;
+			}
+
+			var holder = fetch.next();
+
+			if (!holder.exists()) {
+				completed = true;
+				fetch = null;
+				return holder;
+			}
+
+			list.add(holder.value());
+			return holder;
+		}
+
+		final synchronized Fetch<T> takeOver(int index) {
+			if (index == list.size() && fetch != null) {
+				var current = fetch;
+				fetch = null;
+				return current;
+			}
+
+			if (index == list.size() && !started) {
+				started = true;
+				return source.fetch();
+			}
+
+			throw new IllegalStateException("memoize limit exceeded");
+		}
+
+		private void closeIfUnused() {
+			if (consumers == 0 && fetch != null) {
+				try (var _fetch = fetch) {
+					fetch = null;
+				}
+			}
+		}
+	}
+
+	public static final class MemoizeFetch<T> extends Fetch<T> {
+		private final MemoizeBuffer<T> buffer;
+		private Fetch<T> fetch;
+		private int index;
+
+		public MemoizeFetch(MemoizeBuffer<T> buffer) {
+			this.buffer = buffer;
+			this.fetch = null;
+			this.index = 0;
+			buffer.attach();
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (fetch != null) {
+				return fetch.next();
+			}
+
+			var holder = buffer.get(index);
+
+			if (holder == null) {
+				fetch = buffer.takeOver(index);
+				return fetch.next();
+			}
+
+			if (holder.exists()) {
+				index++;
+			}
+
+			return holder;
+		}
+
+		@Override
+		protected final void internalClose() {
+			try (var _fetch = fetch) {
+				buffer.detach();
+			}
+		}
+	}
+
+	public static interface MetricsSink {
+		void record(StageMetrics metrics);
+	}
+
+	public static final class MulticastChannel<T> {
+		private final ArrayDeque<Holder<T>> queue;
+		private final int capacity;
+		private boolean attached;
+		private boolean cancelled;
+		private Throwable error;
+
+		public MulticastChannel(int capacity) {
+			this.queue = new ArrayDeque<Holder<T>>(capacity);
+			this.capacity = capacity;
+			this.attached = false;
+			this.cancelled = false;
+			this.error = null;
+		}
+
+		final synchronized void attach() {
+			if (attached) {
+				throw new IllegalStateException("already fetched");
+			}
+			attached = true;
+		}
+
+		final synchronized boolean put(Holder<T> holder) {
+			try {
+				while (!cancelled && queue.size() >= capacity) {
+					wait();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted", e);
+			}
+
+			if (cancelled) {
+				return false;
+			}
+
+			queue.addLast(holder);
+			notifyAll();
+			return true;
+		}
+
+		final synchronized Holder<T> take() {
+			try {
+				while (error == null && queue.isEmpty()) {
+					wait();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted", e);
+			}
+
+			if (error != null) {
+				throw new IllegalStateException("source failed", error);
+			}
+
+			var holder = queue.removeFirst();
+			notifyAll();
+			return holder;
+		}
+
+		final synchronized void cancel() {
+			cancelled = true;
+			queue.clear();
+			notifyAll();
+		}
+
+		final synchronized void fail(Throwable e) {
+			error = e;
+			cancel();
+		}
+	}
+
+	public static final class MulticastFetch<T> extends Fetch<T> {
+		private final MulticastChannel<T> channel;
+
+		public MulticastFetch(MulticastChannel<T> channel) {
+			this.channel = channel;
+			channel.attach();
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			return channel.take();
+		}
+
+		@Override
+		protected final void internalClose() {
+			channel.cancel();
+		}
+	}
+
+	public static final class NamedFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final LatencyHistogram histogram;
+		private long nanos;
+
+		public NamedFetch(Fetch<T> fetch, LatencyHistogram histogram) {
+			this.fetch = fetch;
+			this.histogram = histogram;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			var start = System.nanoTime();
+
+			try {
+				return fetch.next();
+			} finally {
+				nanos += System.nanoTime() - start;
+			}
+		}
+
+		@Override
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			var start = System.nanoTime();
+
+			try {
+				return fetch.nextBatch(batch, offset, length);
+			} finally {
+				nanos += System.nanoTime() - start;
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			var start = System.nanoTime();
+
+			try {
+				fetch.close();
+			} finally {
+				histogram.record(nanos + System.nanoTime() - start);
+			}
+		}
+	}
+
+	public static final class OrderFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final Comparator<T> comparator;
+		private final int limit;
+		private Iterator<T> iterator;
+
+		public OrderFetch(Fetch<T> fetch, Comparator<T> comparator) {
+			this(fetch, comparator, Integer.MAX_VALUE);
+		}
+
+		public OrderFetch(Fetch<T> fetch, Comparator<T> comparator, int limit) {
+			this.fetch = fetch;
+			this.comparator = comparator;
+			this.limit = limit;
+			this.iterator = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (iterator == null) {
+				var list = new ArrayList<T>();
+				
+				while (true) {
+					var current = fetch.next();
+					
+					if (!current.exists()) {
+						break;
+					}
+					
+					list.add(current.value());
+
+					if (list.size() >= 2L * limit) {
+						buffered(list.size());
+						Collections.sort(list, comparator);
+						list.subList(limit, list.size()).clear();
+					}
+				}
+				
+				buffered(list.size());
+				Collections.sort(list, comparator);
+
+				if (list.size() > limit) {
+					list.subList(limit, list.size()).clear();
+				}
+
+				iterator = list.iterator();
+			}
+
+			if (iterator.hasNext()) {
+				return Holder.of(iterator.next());
+			}
+
+			return Holder.none();
+		}
+
+		public final <U extends Comparable<U>> OrderFetch<T> thenBy(final Function<T, U> keySelector) {
+			return new OrderFetch<T>(fetch, comparator.thenComparing(keySelector), limit);
+		}
+
+		public final <U extends Comparable<U>> OrderFetch<T> thenByDescending(final Function<T, U> keySelector) {
+			return new OrderFetch<T>(fetch, comparator.thenComparing(keySelector, Comparator.reverseOrder()), limit);
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class Plan {
+		public final String operator;
+		public final List<Plan> inputs;
+		public final long size;
+		public final boolean distinct;
+		public final boolean sorted;
+		public final boolean buffering;
+
+		public Plan(String operator, List<Plan> inputs, long size, boolean distinct, boolean sorted, boolean buffering) {
+			this.operator = operator;
+			this.inputs = inputs;
+			this.size = size;
+			this.distinct = distinct;
+			this.sorted = sorted;
+			this.buffering = buffering;
+		}
+
+		final void format(StringBuilder builder, int depth) {
+			builder.append("  ".repeat(depth)).append(operator)
+					.append(" rows=").append(size < 0 ? "?" : Long.toString(size))
+					.append(buffering ? " buffers" : " streams");
+
+			if (sorted) {
+				builder.append(" sorted");
+			}
+
+			if (distinct) {
+				builder.append(" distinct");
+			}
+
+			builder.append('\n');
+
+			for (var input : inputs) {
+				input.format(builder, depth + 1);
+			}
+		}
+
+		@Override
+		public final String toString() {
+			return "Plan [operator=" + operator + ", size=" + size + ", distinct=" + distinct + ", sorted=" + sorted
+					+ ", buffering=" + buffering + "]";
+		}
+	}
+
+	public static final class PrefetchFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final SpscRingBuffer<Holder<T>> buffer;
+		private Thread thread;
+		private volatile Throwable error;
+
+		public PrefetchFetch(Fetch<T> fetch, int bufferSize) {
+			this.fetch = fetch;
+			this.buffer = new SpscRingBuffer<Holder<T>>(bufferSize);
+			this.thread = null;
+			this.error = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (thread == null) {
+				thread = new Thread(this::produce, "linq-prefetch");
+				thread.setDaemon(true);
+				thread.start();
+			}
+
+			var holder = buffer.take();
+
+			if (holder == null && error == null) {
+				throw new IllegalStateException("interrupted");
+			}
+
+			if ((holder == null || !holder.exists()) && error != null) {
+				if (error instanceof Error) {
+					throw (Error) error;
+				}
+				throw (RuntimeException) error;
+			}
+
+			return holder;
+		}
+
+		private void produce() {
+			try (var _fetch = fetch) {
+				while (true) {
+					var holder = fetch.next();
+
+					if (!buffer.put(holder) || !holder.exists()) {
+						return;
+					}
+				}
+			} catch (RuntimeException | Error e) {
+				error = e;
+				buffer.put(Holder.none());
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			if (thread == null) {
+				fetch.close();
+				return;
+			}
+
+			buffer.close();
+
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted", e);
+			}
+		}
+	}
+
+	public static final class PublisherFetch<T> extends Fetch<T> {
+		private final Flow.Publisher<T> publisher;
+		private final int limit;
+		private final SpscRingBuffer<Holder<T>> buffer;
+		private final Flow.Subscriber<T> subscriber;
+		private volatile Flow.Subscription subscription;
+		private volatile Throwable error;
+		private volatile boolean cancelled;
+		private boolean subscribed;
+		private int consumed;
+
+		public PublisherFetch(Flow.Publisher<T> publisher, int bufferSize) {
+			this.publisher = publisher;
+			this.limit = Math.max(1, bufferSize - (bufferSize >> 2));
+			this.buffer = new SpscRingBuffer<Holder<T>>(bufferSize);
+			this.subscription = null;
+			this.error = null;
+			this.cancelled = false;
+			this.subscribed = false;
+			this.consumed = 0;
+			this.subscriber = new Flow.Subscriber<T>() {
+				@Override
+				public void onSubscribe(Flow.Subscription s) {
+					if (subscription != null || cancelled) {
+						s.cancel();
+						return;
+					}
+
+					subscription = s;
+
+					if (cancelled) {
+						s.cancel();
+						return;
+					}
+
+					s.request(bufferSize);
+				}
+
+				@Override
+				public void onNext(T item) {
+					if (!buffer.offer(Holder.of(item))) {
+						subscription.cancel();
+						onError(new IllegalStateException("publisher ignored back-pressure"));
+					}
+				}
+
+				@Override
+				public void onError(Throwable throwable) {
+					error = throwable;
+					buffer.close();
+				}
+
+				@Override
+				public void onComplete() {
+					buffer.close();
+				}
+			};
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (!subscribed) {
+				subscribed = true;
+				publisher.subscribe(subscriber);
+			}
+
+			var holder = buffer.take();
+
+			if (holder == null) {
+				if (error instanceof RuntimeException) {
+					throw (RuntimeException) error;
+				}
+				if (error instanceof Error) {
+					throw (Error) error;
+				}
+				if (error != null) {
+					throw new IllegalStateException(error);
+				}
+				return Holder.none();
+			}
+
+			if (++consumed == limit) {
+				subscription.request(consumed);
+				consumed = 0;
+			}
+
+			return holder;
+		}
+
+		@Override
+		protected final void internalClose() {
+			cancelled = true;
+
+			if (subscription != null) {
+				subscription.cancel();
+			}
+		}
+	}
+
+	@Name(QueryEvent.NAME)
+	@Label("Query")
+	@Category("Linq")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class QueryEvent extends Event {
+		static final String NAME = "linq.Query";
+
+		@Label("Query")
+		String query;
+
+		@Label("Stage")
+		String stage;
+
+		@Label("Pulled")
+		long pulled;
+
+		@Label("Emitted")
+		long emitted;
+	}
+
+	public static final class QueryLatency implements QueryLatencyMXBean {
+		static final String DOMAIN = "linq";
+		private static final ConcurrentHashMap<String, QueryLatency> QUERIES = new ConcurrentHashMap<String, QueryLatency>();
+		private final String query;
+		private final LatencyHistogram histogram;
+
+		private QueryLatency(String query) {
+			this.query = query;
+			this.histogram = new LatencyHistogram();
+		}
+
+		static QueryLatency of(String query) {
+			return QUERIES.computeIfAbsent(query, QueryLatency::register);
+		}
+
+		private static QueryLatency register(String query) {
+			var latency = new QueryLatency(query);
+
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(
+						new StandardMBean(latency, QueryLatencyMXBean.class, true), objectName(query));
+			} catch (JMException | RuntimeException e) {
+				return latency;
+			}
+
+			return latency;
+		}
+
+		public static ObjectName objectName(String query) {
+			try {
+				return new ObjectName(DOMAIN + ":type=QueryLatency,name=" + ObjectName.quote(query));
+			} catch (MalformedObjectNameException e) {
+				throw new IllegalArgumentException(e);
+			}
+		}
+
+		final LatencyHistogram histogram() {
+			return histogram;
+		}
+
+		public final LatencySnapshot snapshot() {
+			return histogram.snapshot();
+		}
+
+		@Override
+		public final String getQuery() {
+			return query;
+		}
+
+		@Override
+		public final long getCount() {
+			return snapshot().count;
+		}
+
+		@Override
+		public final double getMeanNanos() {
+			return snapshot().mean;
+		}
+
+		@Override
+		public final long getP50Nanos() {
+			return snapshot().p50();
+		}
+
+		@Override
+		public final long getP99Nanos() {
+			return snapshot().p99();
+		}
+
+		@Override
+		public final long getP999Nanos() {
+			return snapshot().p999();
+		}
+
+		@Override
+		public final long getMaxNanos() {
+			return snapshot().max;
+		}
+
+		@Override
+		public final void reset() {
+			histogram.reset();
+		}
+	}
+
+	public static interface QueryLatencyMXBean {
+		String getQuery();
+
+		long getCount();
+
+		double getMeanNanos();
+
+		long getP50Nanos();
+
+		long getP99Nanos();
+
+		long getP999Nanos();
+
+		long getMaxNanos();
+
+		void reset();
+	}
+
+	public static final class QueryMetrics implements QueryMetricsMXBean {
+		private final String query;
+		private final LongAdder stages;
+		private final LongAdder pulled;
+		private final LongAdder emitted;
+		private final LongAdder nanos;
+		private final AtomicLong buffered;
+		private final LongAdder closes;
+
+		public QueryMetrics(String query) {
+			this.query = query;
+			this.stages = new LongAdder();
+			this.pulled = new LongAdder();
+			this.emitted = new LongAdder();
+			this.nanos = new LongAdder();
+			this.buffered = new AtomicLong(0);
+			this.closes = new LongAdder();
+		}
+
+		final void add(StageMetrics metrics) {
+			stages.increment();
+			pulled.add(metrics.pulled);
+			emitted.add(metrics.emitted);
+			nanos.add(metrics.nanos);
+			buffered.accumulateAndGet(metrics.buffered, Math::max);
+			closes.add(metrics.closes);
+		}
+
+		@Override
+		public final String getQuery() {
+			return query;
+		}
+
+		@Override
+		public final long getStages() {
+			return stages.sum();
+		}
+
+		@Override
+		public final long getPulled() {
+			return pulled.sum();
+		}
+
+		@Override
+		public final long getEmitted() {
+			return emitted.sum();
+		}
+
+		@Override
+		public final long getTimeNanos() {
+			return nanos.sum();
+		}
+
+		@Override
+		public final long getPeakBuffered() {
+			return buffered.get();
+		}
+
+		@Override
+		public final long getCloses() {
+			return closes.sum();
+		}
+	}
+
+	public static interface QueryMetricsMXBean {
+		String getQuery();
+
+		long getStages();
+
+		long getPulled();
+
+		long getEmitted();
+
+		long getTimeNanos();
+
+		long getPeakBuffered();
+
+		long getCloses();
+	}
+
+	public static final class RangeFetch extends Fetch<Integer> {
+		private final int start;
+		private final int count;
+		private int index;
+
+		public RangeFetch(int start, int count) {
+			this.start = start;
+			this.count = count;
+			this.index = 0;
+		}
+
+		@Override
+		protected final Holder<Integer> internalNext() {
+			if (index < count) {
+				return Holder.of(start + (index++));
+			}
+			return Holder.none();
+		}
+
+		@Override
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			var size = Math.min(length, count - index);
+
+			for (var i = 0; i < size; i++) {
+				batch[offset + i] = start + index + i;
+			}
+
+			index += size;
+			return size;
+		}
+
+		@Override
+		protected final void internalClose() {
+		}
+	}
+
+	public static final class RecordsFetch extends Fetch<BinaryRecord> {
+		private final Path path;
+		private final int recordSize;
+		private final ByteOrder order;
+		private final int window;
+		private final BinaryRecord record;
+		private FileChannel channel;
+		private ByteBuffer buffer;
+		private long base;
+		private long size;
+		private long index;
+		private int position;
+
+		public RecordsFetch(Path path, int recordSize, ByteOrder order, int window) {
+			this.path = path;
+			this.recordSize = recordSize;
+			this.order = order;
+			this.window = Math.max(1, window / recordSize) * recordSize;
+			this.record = new BinaryRecord(recordSize);
+			this.channel = null;
+			this.buffer = null;
+			this.base = 0L;
+			this.size = 0L;
+			this.index = 0L;
+			this.position = 0;
+		}
+
+		@Override
+		protected final Holder<BinaryRecord> internalNext() {
+			try {
+				if (channel == null) {
+					channel = FileChannel.open(path, StandardOpenOption.READ);
+					size = channel.size();
+
+					if (size % recordSize != 0) {
+						throw new IllegalStateException("truncated record: " + path);
+					}
+
+					buffer = map();
+				}
+
+				if (position == buffer.limit()) {
+					base += position;
+					position = 0;
+
+					if (base == size) {
+						return Holder.none();
+					}
+
+					buffer = map();
+				}
+
+				record.move(buffer, position, index++);
+				position += recordSize;
+				return Holder.of(record);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private ByteBuffer map() throws IOException {
+			return channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(window, size - base)).order(order);
+		}
+
+		@Override
+		protected final void internalClose() {
+			buffer = null;
+
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+	}
+
+	public static final class RepeatFetch<T> extends Fetch<T> {
+		private final T value;
+		private final int count;
+		private int index;
+
+		public RepeatFetch(T value, int count) {
+			this.value = value;
+			this.count = count;
+			this.index = 0;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (index < count) {
+				index++;
+				return Holder.of(value);
+			}
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+		}
+	}
+
+	public static final class ReverseFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private Iterator<Holder<T>> iterator;
+
+		public ReverseFetch(Fetch<T> fetch) {
+			this.fetch = fetch;
+			this.iterator = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (iterator == null) {
+				var list = new ArrayList<Holder<T>>();
+
+				while (true) {
+					var holder = fetch.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					list.add(holder);
+				}
+
+				buffered(list.size());
+				Collections.reverse(list);
+				iterator = list.iterator();
+			}
+
+			if (iterator.hasNext()) {
+				return iterator.next();
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class SelectAsyncFetch<T, U> extends Fetch<U> {
+		private final Fetch<T> fetch;
+		private final Function<T, U> function;
+		private final int maxConcurrency;
+		private final boolean ordered;
+		private final ArrayDeque<Future<U>> futures;
+		private ExecutorService executor;
+		private ExecutorCompletionService<U> completion;
+		private boolean exhausted;
+
+		public SelectAsyncFetch(Fetch<T> fetch, Function<T, U> function, int maxConcurrency, boolean ordered) {
+			this.fetch = fetch;
+			this.function = function;
+			this.maxConcurrency = maxConcurrency;
+			this.ordered = ordered;
+			this.futures = new ArrayDeque<Future<U>>(maxConcurrency);
+			this.executor = null;
+			this.completion = null;
+			this.exhausted = false;
+		}
+
+		@Override
+		protected final Holder<U> internalNext() {
+			if (executor == null) {
+				executor = newExecutor(maxConcurrency);
+				completion = new ExecutorCompletionService<U>(executor);
+			}
+
+			while (!exhausted && futures.size() < maxConcurrency) {
+				var holder = fetch.next();
+
+				if (!holder.exists()) {
+					exhausted = true;
+					break;
+				}
+
+				var value = holder.value();
+
+				if (ordered) {
+					futures.addLast(executor.submit(() -> function.apply(value)));
+				} else {
+					futures.addLast(completion.submit(() -> function.apply(value)));
+				}
+			}
+
+			if (futures.isEmpty()) {
+				return Holder.none();
+			}
+
+			try {
+				if (ordered) {
+					return Holder.of(futures.removeFirst().get());
+				}
+
+				var future = completion.take();
+				futures.remove(future);
+				return Holder.of(future.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted", e);
+			} catch (ExecutionException e) {
+				throw unchecked(e.getCause());
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			try (var _fetch = fetch) {
+				for (var future : futures) {
+					future.cancel(true);
+				}
+
+				futures.clear();
+
+				if (executor != null) {
+					executor.shutdownNow();
+				}
+			}
+		}
+
+		private static ExecutorService newExecutor(int maxConcurrency) {
+			try {
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException e) {
+				return newDaemonPool(maxConcurrency, "linq-select-async");
+			}
+		}
+	}
+
+	public static final class SelectFetch<T, U> extends Fetch<U> {
+		private final Fetch<T> fetch;
+		private final Function<T, U> function;
+
+		public SelectFetch(Fetch<T> iterator, Function<T, U> function) {
+			this.fetch = iterator;
+			this.function = function;
+		}
+
+		@Override
+		protected final Holder<U> internalNext() {
+			var holder = fetch.next();
+
+			if (holder.exists()) {
+				return Holder.of(function.apply(holder.value()));
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			var count = fetch.nextBatch(batch, offset, length);
+
+			for (var i = offset; i < offset + count; i++) {
+				batch[i] = function.apply((T) batch[i]);
+			}
+
+			return count;
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class SelectManyFetch<T, U> extends Fetch<U> {
+		private final Fetch<T> fetch;
+		private final Function<T, Fetch<U>> function;
+		private Fetch<U> inner;
+
+		public SelectManyFetch(Fetch<T> fetch, Function<T, Fetch<U>> function) {
+			this.fetch = fetch;
+			this.function = function;
+			this.inner = new EmptyFetch<U>();
+		}
+
+		@Override
+		protected final Holder<U> internalNext() {
+			while (true) {
+				var holder = inner.next();
+
+				if (holder.exists()) {
+					return holder;
+				}
+
+				var innerHolder = fetch.next();
+
+				if (!innerHolder.exists()) {
+					return holder;
+				}
+
+				inner = function.apply(innerHolder.value());
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			try (var _iterator = fetch;
+					var _inner = inner) {
+			}
+		}
+	}
+
+	static interface SelectionFilter {
+		int apply(int[] selection, int count);
+	}
+
+	public static final class SelectWhereFetch<T, U> extends Fetch<U> {
+		private final Fetch<T> fetch;
+		private final Function<T, U> function;
+		private final Predicate<U> predicate;
+
+		public SelectWhereFetch(Fetch<T> fetch, Function<T, U> function, Predicate<U> predicate) {
+			this.fetch = fetch;
+			this.function = function;
+			this.predicate = predicate;
+		}
+
+		@Override
+		protected final Holder<U> internalNext() {
+			while (true) {
+				var holder = fetch.next();
+
+				if (!holder.exists()) {
+					return Holder.none();
+				}
+
+				var value = function.apply(holder.value());
+
+				if (predicate.test(value)) {
+					return Holder.of(value);
+				}
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			while (true) {
+				var count = fetch.nextBatch(batch, offset, length);
+
+				if (count == 0) {
+					return 0;
+				}
+
+				var size = 0;
+
+				for (var i = offset; i < offset + count; i++) {
+					var value = function.apply((T) batch[i]);
+
+					if (predicate.test(value)) {
+						batch[offset + size++] = value;
+					}
+				}
+
+				if (size > 0) {
+					return size;
+				}
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class SkipFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final long count;
+		private long index;
+
+		public SkipFetch(Fetch<T> fetch, long count) {
+			this.fetch = fetch;
+			this.count = count;
+			this.index = 0L;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			while (index < count) {
+				var holder = fetch.next();
+
+				if (!holder.exists()) {
+					return holder;
+				}
+
+				index++;
+			}
+
+			return fetch.next();
+		}
+
+		@Override
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			while (true) {
+				var size = fetch.nextBatch(batch, offset, length);
+
+				if (size == 0 || index >= count) {
+					return size;
+				}
+
+				var skip = (int) Math.min(size, count - index);
+				index += skip;
+
+				if (skip < size) {
+					System.arraycopy(batch, offset + skip, batch, offset, size - skip);
+					return size - skip;
+				}
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class SkipLastFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final int count;
+		private ArrayDeque<Holder<T>> queue;
+
+		public SkipLastFetch(Fetch<T> fetch, int count) {
+			this.fetch = fetch;
+			this.count = count;
+			this.queue = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (queue == null) {
+				queue = new ArrayDeque<Holder<T>>(count);
+
+				for (var i = 0; i < count; i++) {
+					var current = fetch.next();
+
+					if (!current.exists()) {
+						return current;
+					}
+
+					queue.addLast(current);
+				}
+
+				buffered(queue.size());
+			}
+
+			var current = fetch.next();
+
+			if (current.exists()) {
+				var first = queue.removeFirst();
+				queue.addLast(current);
+				return first;
+			}
+
+			return current;
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class SkipWhileFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final Predicate<T> predicate;
+		private boolean skipped;
+
+		public SkipWhileFetch(Fetch<T> fetch, Predicate<T> predicate) {
+			this.fetch = fetch;
+			this.predicate = predicate;
+			this.skipped = false;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (!skipped) {
+				skipped = true;
+
+				while (true) {
+					var holder = fetch.next();
+
+					if (!holder.exists()) {
+						return holder;
+					}
+
+					if (!predicate.test(holder.value())) {
+						return holder;
+					}
+				}
+			}
+
+			return fetch.next();
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class SpscRingBuffer<E> {
+		private static final int SPINS = 256;
+
+		private final Object[] array;
+		private final int mask;
+		private final AtomicLong head;
+		private final AtomicLong tail;
+		private volatile Thread producer;
+		private volatile Thread consumer;
+		private volatile boolean closed;
+
+		public SpscRingBuffer(int capacity) {
+			var size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+			this.array = new Object[size];
+			this.mask = size - 1;
+			this.head = new AtomicLong(0L);
+			this.tail = new AtomicLong(0L);
+			this.producer = null;
+			this.consumer = null;
+			this.closed = false;
+		}
+
+		public final int capacity() {
+			return array.length;
+		}
+
+		public final boolean isClosed() {
+			return closed;
+		}
+
+		public final boolean offer(E value) {
+			var t = tail.get();
+
+			if (t - head.get() == array.length) {
+				return false;
+			}
+
+			array[(int) t & mask] = value;
+			tail.set(t + 1);
+			LockSupport.unpark(consumer);
+			return true;
+		}
+
+		public final E poll() {
+			var h = head.get();
+
+			if (h == tail.get()) {
+				return null;
+			}
+
+			@SuppressWarnings("unchecked")
+			var value = (E) array[(int) h & mask];
+			array[(int) h & mask] = null;
+			head.set(h + 1);
+			LockSupport.unpark(producer);
+			return value;
+		}
+
+		public final boolean put(E value) {
+			for (var i = 0; !offer(value); i++) {
+				if (closed) {
+					return false;
+				}
+
+				if (i < SPINS) {
+					Thread.onSpinWait();
+					continue;
+				}
+
+				producer = Thread.currentThread();
+
+				if (tail.get() - head.get() == array.length && !closed) {
+					LockSupport.park(this);
+				}
+
+				producer = null;
+
+				if (Thread.interrupted()) {
+					close();
+					return false;
+				}
+			}
+
+			return !closed;
+		}
+
+		public final E take() {
+			for (var i = 0;; i++) {
+				var value = poll();
+
+				if (value != null) {
+					return value;
+				}
+
+				if (closed) {
+					return poll();
+				}
+
+				if (i < SPINS) {
+					Thread.onSpinWait();
+					continue;
+				}
+
+				consumer = Thread.currentThread();
+
+				if (head.get() == tail.get() && !closed) {
+					LockSupport.park(this);
+				}
+
+				consumer = null;
+
+				if (Thread.interrupted()) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("interrupted");
+				}
+			}
+		}
+
+		public final void close() {
+			closed = true;
+			LockSupport.unpark(producer);
+			LockSupport.unpark(consumer);
+		}
+	}
+
+	public static final class StageFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final int batchSize;
+		private final SpscRingBuffer<List<T>> buffer;
+		private List<T> batch;
+		private int index;
+		private Thread thread;
+		private volatile Throwable error;
+
+		public StageFetch(Fetch<T> fetch, int batchSize, int depth) {
+			this.fetch = fetch;
+			this.batchSize = batchSize;
+			this.buffer = new SpscRingBuffer<List<T>>(depth);
+			this.batch = Collections.emptyList();
+			this.index = 0;
+			this.thread = null;
+			this.error = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (thread == null) {
+				thread = new Thread(this::produce, "linq-stage");
+				thread.setDaemon(true);
+				thread.start();
+			}
+
+			if (index == batch.size()) {
+				var next = buffer.take();
+				index = 0;
+
+				if (next == null && error == null) {
+					batch = Collections.emptyList();
+					throw new IllegalStateException("interrupted");
+				}
+
+				if ((next == null || next.isEmpty()) && error != null) {
+					batch = Collections.emptyList();
+
+					if (error instanceof Error) {
+						throw (Error) error;
+					}
+					throw (RuntimeException) error;
+				}
+
+				batch = next;
+
+				if (batch.isEmpty()) {
+					return Holder.none();
+				}
+			}
+
+			return Holder.of(batch.get(index++));
+		}
+
+		private void produce() {
+			List<T> list = Collections.emptyList();
+
+			try (var _fetch = fetch) {
+				list = new ArrayList<T>(batchSize);
+
+				while (true) {
+					var holder = fetch.next();
+
+					if (holder.exists()) {
+						list.add(holder.value());
+
+						if (list.size() < batchSize) {
+							continue;
+						}
+					}
+
+					if (!list.isEmpty() && !buffer.put(list)) {
+						return;
+					}
+
+					if (!holder.exists()) {
+						buffer.put(Collections.emptyList());
+						return;
+					}
+
+					list = new ArrayList<T>(batchSize);
+				}
+			} catch (RuntimeException | Error e) {
+				error = e;
+
+				if (!list.isEmpty()) {
+					buffer.put(list);
+				}
+
+				buffer.put(Collections.emptyList());
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			batch = Collections.emptyList();
+
+			if (thread == null) {
+				fetch.close();
+				return;
+			}
+
+			buffer.close();
+
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted", e);
+			}
+		}
+	}
+
+	public static final class StageMetrics {
+		public final String query;
+		public final String stage;
+		public final long pulled;
+		public final long emitted;
+		public final long nanos;
+		public final long buffered;
+		public final int closes;
+
+		public StageMetrics(String query, String stage, long pulled, long emitted, long nanos, long buffered,
+				int closes) {
+			this.query = query;
+			this.stage = stage;
+			this.pulled = pulled;
+			this.emitted = emitted;
+			this.nanos = nanos;
+			this.buffered = buffered;
+			this.closes = closes;
+		}
+
+		@Override
+		public final boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			StageMetrics other = (StageMetrics) obj;
+			return Objects.equals(query, other.query) && Objects.equals(stage, other.stage)
+					&& pulled == other.pulled && emitted == other.emitted && nanos == other.nanos
+					&& buffered == other.buffered && closes == other.closes;
+		}
+
+		@Override
+		public final int hashCode() {
+			return Objects.hash(query, stage, pulled, emitted, nanos, buffered, closes);
+		}
+
+		@Override
+		public final String toString() {
+			return "StageMetrics [query=" + query + ", stage=" + stage + ", pulled=" + pulled + ", emitted=" + emitted
+					+ ", nanos=" + nanos + ", buffered=" + buffered + ", closes=" + closes + "]";
+		}
+	}
+
+	public static final class TableColumns<T> {
+		private final Function<TableRow, ? extends T> factory;
+		private final ArrayList<Object> getters;
+		private byte[] types;
+
+		public TableColumns(Function<TableRow, ? extends T> factory) {
+			this.factory = factory;
+			this.getters = new ArrayList<Object>();
+			this.types = new byte[0];
+		}
+
+		public final TableColumns<T> intColumn(ToIntFunction<? super T> getter) {
+			return add('I', getter);
+		}
+
+		public final TableColumns<T> longColumn(ToLongFunction<? super T> getter) {
+			return add('J', getter);
+		}
+
+		public final TableColumns<T> doubleColumn(ToDoubleFunction<? super T> getter) {
+			return add('D', getter);
+		}
+
+		public final TableColumns<T> stringColumn(Function<? super T, String> getter) {
+			return add('S', getter);
+		}
+
+		public final int columnCount() {
+			return types.length;
+		}
+
+		private TableColumns<T> add(char type, Object getter) {
+			types = Arrays.copyOf(types, types.length + 1);
+			types[types.length - 1] = (byte) type;
+			getters.add(getter);
+			return this;
+		}
+
+		final byte type(int column) {
+			return types[column];
+		}
+
+		final T create(TableRow row) {
+			return factory.apply(row);
+		}
+
+		@SuppressWarnings("unchecked")
+		final TableLinq<T> load(Fetch<T> fetch) {
+			var data = new Object[types.length];
+			var dictionaries = new String[types.length][];
+			var codes = new ArrayList<HashMap<String, Integer>>();
+			var capacity = 16;
+			var size = 0;
+
+			for (var i = 0; i < types.length; i++) {
+				data[i] = types[i] == 'J' ? new long[capacity] : types[i] == 'D' ? new double[capacity] : new int[capacity];
+				codes.add(types[i] == 'S' ? new HashMap<String, Integer>() : null);
+			}
+
+			while (true) {
+				var current = fetch.next();
+
+				if (!current.exists()) {
+					break;
+				}
+
+				if (size == capacity) {
+					capacity *= 2;
+
+					for (var i = 0; i < types.length; i++) {
+						data[i] = types[i] == 'J' ? Arrays.copyOf((long[]) data[i], capacity)
+								: types[i] == 'D' ? Arrays.copyOf((double[]) data[i], capacity)
+										: Arrays.copyOf((int[]) data[i], capacity);
+					}
+				}
+
+				var value = current.value();
+
+				for (var i = 0; i < types.length; i++) {
+					switch (types[i]) {
+					case 'I':
+						((int[]) data[i])[size] = ((ToIntFunction<? super T>) getters.get(i)).applyAsInt(value);
+						break;
+					case 'J':
+						((long[]) data[i])[size] = ((ToLongFunction<? super T>) getters.get(i)).applyAsLong(value);
+						break;
+					case 'D':
+						((double[]) data[i])[size] = ((ToDoubleFunction<? super T>) getters.get(i)).applyAsDouble(value);
+						break;
+					default:
+						var dictionary = codes.get(i);
+						var string = ((Function<? super T, String>) getters.get(i)).apply(value);
+						var code = dictionary.get(string);
+
+						if (code == null) {
+							code = dictionary.size();
+							dictionary.put(string, code);
+						}
+
+						((int[]) data[i])[size] = code;
+						break;
+					}
+				}
+
+				size++;
+			}
+
+			for (var i = 0; i < types.length; i++) {
+				if (types[i] == 'S') {
+					dictionaries[i] = new String[codes.get(i).size()];
+
+					for (var entry : codes.get(i).entrySet()) {
+						dictionaries[i][entry.getValue()] = entry.getKey();
+					}
+				}
+			}
+
+			return new TableLinq<T>(this, data, dictionaries, size, new SelectionFilter[0]);
+		}
+	}
+
+	public static final class TableFetch<T> extends Fetch<T> {
+		static final int BATCH_SIZE = 1024;
+
+		private final TableColumns<T> columns;
+		private final SelectionFilter[] filters;
+		private final int size;
+		private final int[] selection;
+		private final TableRow row;
+		private int start;
+		private int count;
+		private int position;
+
+		public TableFetch(TableColumns<T> columns, Object[] data, String[][] dictionaries, int size,
+				SelectionFilter[] filters) {
+			this.columns = columns;
+			this.filters = filters;
+			this.size = size;
+			this.selection = new int[BATCH_SIZE];
+			this.row = new TableRow(data, dictionaries);
+			this.start = 0;
+			this.count = 0;
+			this.position = 0;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			while (position == count) {
+				if (start == size) {
+					return Holder.none();
+				}
+
+				var end = Math.min(start + BATCH_SIZE, size);
+				count = select(filters, selection, start, end);
+				position = 0;
+				start = end;
+			}
+
+			row.move(selection[position++]);
+			return Holder.of(columns.create(row));
+		}
+
+		static int select(SelectionFilter[] filters, int[] selection, int start, int end) {
+			var count = end - start;
+
+			for (var i = 0; i < count; i++) {
+				selection[i] = start + i;
+			}
+
+			for (var filter : filters) {
+				if (count == 0) {
+					break;
+				}
+
+				count = filter.apply(selection, count);
+			}
+
+			return count;
+		}
+
+		@Override
+		protected final void internalClose() {
+		}
+	}
+
+	public static final class TableRow {
+		private final Object[] data;
+		private final String[][] dictionaries;
+		private int index;
+
+		public TableRow(Object[] data, String[][] dictionaries) {
+			this.data = data;
+			this.dictionaries = dictionaries;
+			this.index = -1;
+		}
+
+		final void move(int index) {
+			this.index = index;
+		}
+
+		public final int index() {
+			return index;
+		}
+
+		public final int getInt(int column) {
+			return ((int[]) data[column])[index];
+		}
+
+		public final long getLong(int column) {
+			return ((long[]) data[column])[index];
+		}
+
+		public final double getDouble(int column) {
+			return ((double[]) data[column])[index];
+		}
+
+		public final String getString(int column) {
+			return dictionaries[column][((int[]) data[column])[index]];
+		}
+	}
+
+	public static final class TakeFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final int count;
+		private int index;
+
+		public TakeFetch(Fetch<T> fetch, int count) {
+			this.fetch = fetch;
+			this.count = count;
+			this.index = 0;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (index < count) {
+				var holder = fetch.next();
+
+				if (!holder.exists()) {
+					return holder;
+				}
+
+				index++;
+				return holder;
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			if (index >= count) {
+				return 0;
+			}
+
+			var size = fetch.nextBatch(batch, offset, Math.min(length, count - index));
+			index += size;
+			return size;
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class TakeLastFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final int count;
+		private Queue<Holder<T>> queue;
+
+		public TakeLastFetch(Fetch<T> fetch, int count) {
+			this.fetch = fetch;
+			this.count = count;
+			this.queue = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (queue == null) {
+				queue = new ArrayDeque<Holder<T>>(count);
+
+				while (true) {
+					var holder = fetch.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					if (queue.size() == count) {
+						queue.remove();
+					}
+
+					queue.add(holder);
+				}
+
+				buffered(queue.size());
+			}
+
+			if (queue.size() > 0) {
+				return queue.remove();
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class TakeWhileFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final Predicate<T> predicate;
+		private boolean terminated;
+
+		public TakeWhileFetch(Fetch<T> fetch, Predicate<T> predicate) {
+			this.fetch = fetch;
+			this.predicate = predicate;
+			this.terminated = false;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (terminated) {
+				return Holder.none();
+			}
+
+			var holder = fetch.next();
+
+			if (holder.exists()) {
+				if (predicate.test(holder.value())) {
+					return holder;
+				} else {
+					terminated = true;
+					return Holder.none();
+				}
+			}
+
+			return holder;
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class Tuple2<T1, T2> {
+		public final T1 value1;
+		public final T2 value2;
+
+		public Tuple2(T1 value1, T2 value2) {
+			this.value1 = value1;
+			this.value2 = value2;
+		}
+
+		@Override
+		public final boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			@SuppressWarnings("unchecked")
+			Tuple2<T1, T2> other = (Tuple2<T1, T2>) obj;
+			return Objects.equals(value1, other.value1) && Objects.equals(value2, other.value2);
+		}
+
+		@Override
+		public final int hashCode() {
+			return Objects.hash(value1, value2);
+		}
+
+		@Override
+		public final String toString() {
+			return "Tuple2 [value1=" + value1 + ", value2=" + value2 + "]";
+		}
+	}
+
+	public static final class TypeFetch<T, U> extends Fetch<U> {
+		private final Fetch<T> fetch;
+		private final Class<U> type;
+
+		public TypeFetch(Fetch<T> fetch, Class<U> type) {
+			this.fetch = fetch;
+			this.type = type;
+		}
+
+		@Override
+		protected final Holder<U> internalNext() {
+			while (true) {
+				var holder = fetch.next();
+
+				if (!holder.exists()) {
+					break;
+				}
+
+				if (type.isInstance(holder.value())) {
+					return Holder.of(type.cast(holder.value()));
+				}
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			while (true) {
+				var count = fetch.nextBatch(batch, offset, length);
+
+				if (count == 0) {
+					return 0;
+				}
+
+				var size = 0;
+
+				for (var i = offset; i < offset + count; i++) {
+					if (type.isInstance(batch[i])) {
+						batch[offset + size++] = batch[i];
+					}
+				}
+
+				if (size > 0) {
+					return size;
+				}
+			}
+		}
+
+		@Override
+		protected final void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class UnionByFetch<T, K> extends Fetch<T> {
+		private final Fetch<T> left;
+		private final Fetch<T> right;
+		private final Function<T, K> keyFactory;
+		private Iterator<Holder<T>> iterator;
+
+		public UnionByFetch(Fetch<T> left, Fetch<T> right, Function<T, K> keyFactory) {
+			this.left = left;
+			this.right = right;
+			this.keyFactory = keyFactory;
+			this.iterator = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (iterator == null) {
+				var map = new LinkedHashMap<K, Holder<T>>();
+
+				while (true) {
+					var holder = left.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					map.putIfAbsent(keyFactory.apply(holder.value()), holder);
+				}
+
+				while (true) {
+					var holder = right.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					map.putIfAbsent(keyFactory.apply(holder.value()), holder);
+				}
+
+				iterator = map.values().iterator();
+			}
+
+			if (iterator.hasNext()) {
+				return iterator.next();
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+			try (var _right = right;
+					var _left = left) {
+			}
+		}
+	}
+
+	public static final class UnionFetch<T> extends Fetch<T> {
+		private final Fetch<T> left;
+		private final Fetch<T> right;
+		private Iterator<Holder<T>> iterator;
+
+		public UnionFetch(Fetch<T> left, Fetch<T> right) {
+			this.left = left;
+			this.right = right;
+			this.iterator = null;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			if (iterator == null) {
+				var set = new LinkedHashSet<Holder<T>>();
+
+				while (true) {
+					var holder = left.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					set.add(holder);
+				}
+
+				while (true) {
+					var holder = right.next();
+
+					if (!holder.exists()) {
+						break;
+					}
+
+					set.add(holder);
+				}
+
+				buffered(set.size());
+				iterator = set.iterator();
+			}
+
+			if (iterator.hasNext()) {
+				return iterator.next();
+			}
+
+			return Holder.none();
+		}
+
+		@Override
+		protected final void internalClose() {
+			try (var _right = right;
+					var _left = left) {
+			}
+		}
+	}
+
+	public static final class WhereFetch<T> extends Fetch<T> {
+		private final Fetch<T> fetch;
+		private final Predicate<T> predicate;
+
+		public WhereFetch(Fetch<T> fetch, Predicate<T> predicate) {
+			this.fetch = fetch;
+			this.predicate = predicate;
+		}
+
+		@Override
+		protected final Holder<T> internalNext() {
+			while (true) {
+				var holder = fetch.next();
+
+				if (!holder.exists()) {
+					return holder;
+				}
+
+				if (predicate.test(holder.value())) {
+					return holder;
+				}
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		protected final int internalNextBatch(Object[] batch, int offset, int length) {
+			while (true) {
+				var count = fetch.nextBatch(batch, offset, length);
+
+				if (count == 0) {
+					return 0;
+				}
+
+				var size = 0;
+
+				for (var i = offset; i < offset + count; i++) {
+					if (predicate.test((T) batch[i])) {
+						batch[offset + size++] = batch[i];
+					}
+				}
+
+				if (size > 0) {
+					return size;
+				}
+			}
+		}
+
+		@Override
+		protected void internalClose() {
+			fetch.close();
+		}
+	}
+
+	public static final class WriteResult {
+		public final long records;
+		public final long size;
+
+		public WriteResult(long records, long size) {
+			this.records = records;
+			this.size = size;
+		}
+
+		@Override
+		public final boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			WriteResult other = (WriteResult) obj;
+			return records == other.records && size == other.size;
+		}
+
+		@Override
+		public final int hashCode() {
+			return Objects.hash(records, size);
+		}
+
+		@Override
+		public final String toString() {
+			return "WriteResult [records=" + records + ", size=" + size + "]";
+		}
+	}
+
+	public static final class ZipFetch<TLeft, TRight> extends Fetch<Tuple2<TLeft, TRight>> {
+		private final Fetch<TLeft> left;
+		private final Fetch<TRight> right;
+
+		public ZipFetch(Fetch<TLeft> left, Fetch<TRight> right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		protected final Holder<Tuple2<TLeft, TRight>> internalNext() {
+			var leftHolder = left.next();
+
+			if (!leftHolder.exists()) {
+				return Holder.none();
+			}
+
+			var rightHolder = right.next();
+
+			if (!rightHolder.exists()) {
+				return Holder.none();
+			}
+
+			return Holder.of(new Tuple2<TLeft, TRight>(leftHolder.value(), rightHolder.value()));
+		}
+
+		@Override
+		protected final void internalClose() {
+			try (var _right = right;
+					var _left = left) {
+			}
+		}
+	}
+
+	public static final class OrderLinq<T> extends Linq<T> {
+		private final Supplier<OrderFetch<T>> supplier;
+
+		public OrderLinq(Supplier<OrderFetch<T>> supplier) {
+			super(supplier);
+			this.supplier = supplier;
+		}
+
+		public OrderLinq(Linq<T> source, Comparator<T> comparator) {
+			this(source, comparator, () -> new OrderFetch<T>(source.fetch(), comparator));
+		}
+
+		private OrderLinq(Linq<T> source, Comparator<T> comparator, Supplier<OrderFetch<T>> supplier) {
+			super(supplier, source, "orderBy", comparator);
+			this.supplier = supplier;
+		}
+
+		@Override
+		public OrderFetch<T> fetch() {
+			return supplier.get();
+		}
+
+		public final <U extends Comparable<U>> OrderLinq<T> thenBy(final Function<T, U> keySelector) {
+			Linq<T> linq = this;
+
+			if (linq.source != null) {
+				return new OrderLinq<T>(input(), comparator().thenComparing(keySelector));
+			}
+
+			return new OrderLinq<T>(() -> fetch().thenBy(keySelector));
+		}
+
+		public final <U extends Comparable<U>> OrderLinq<T> thenByDescending(final Function<T, U> keySelector) {
+			Linq<T> linq = this;
+
+			if (linq.source != null) {
+				return new OrderLinq<T>(input(), comparator().thenComparing(keySelector, Comparator.reverseOrder()));
+			}
+
+			return new OrderLinq<T>(() -> fetch().thenByDescending(keySelector));
+		}
+
+		@SuppressWarnings("unchecked")
+		final Linq<T> input() {
+			Linq<T> linq = this;
+			return (Linq<T>) linq.source;
+		}
+
+		@SuppressWarnings("unchecked")
+		final Comparator<T> comparator() {
+			Linq<T> linq = this;
+			return (Comparator<T>) linq.argument;
+		}
+	}
+
+	public static final class MemoizeLinq<T> extends Linq<T> {
+		private final Linq<T> source;
+		private final int limit;
+		private final AtomicReference<MemoizeBuffer<T>> buffer;
+
+		public MemoizeLinq(Linq<T> source, int limit) {
+			this(source, limit, new AtomicReference<MemoizeBuffer<T>>(new MemoizeBuffer<T>(source, limit)));
+		}
+
+		private MemoizeLinq(Linq<T> source, int limit, AtomicReference<MemoizeBuffer<T>> buffer) {
+			super(() -> new MemoizeFetch<T>(buffer.get()), source, "memoize", limit);
+			this.source = source;
+			this.limit = limit;
+			this.buffer = buffer;
+		}
+
+		@Override
+		public MemoizeFetch<T> fetch() {
+			return new MemoizeFetch<T>(buffer.get());
+		}
+
+		public final int bufferedSize() {
+			return buffer.get().size();
+		}
+
+		public final void release() {
+			buffer.getAndSet(new MemoizeBuffer<T>(source, limit)).release();
+		}
+	}
+
+	public static class AsyncLinq<T> {
+		private final Supplier<? extends AsyncFetch<T>> supplier;
+
+		public AsyncLinq(Supplier<? extends AsyncFetch<T>> supplier) {
+			this.supplier = supplier;
+		}
+
+		public static <T> AsyncLinq<T> of(Supplier<AsyncFetch<T>> supplier) {
+			return new AsyncLinq<T>(supplier);
+		}
+
+		public AsyncFetch<T> fetch() {
+			return supplier.get();
+		}
+
+		public final AsyncLinq<T> concat(final AsyncLinq<T> right) {
+			return of(() -> new AsyncConcatFetch<T>(fetch(), right.fetch()));
+		}
+
+		public final <U> AsyncLinq<U> select(final Function<T, U> mapper) {
+			return of(() -> new AsyncSelectFetch<T, U>(fetch(), mapper));
+		}
+
+		public final <U> AsyncLinq<U> selectAwait(final Function<T, ? extends CompletionStage<U>> mapper) {
+			return of(() -> new AsyncSelectAwaitFetch<T, U>(fetch(), mapper));
+		}
+
+		public final <U> AsyncLinq<U> selectMany(final Function<T, AsyncLinq<U>> mapper) {
+			return of(() -> new AsyncSelectManyFetch<T, U>(fetch(), x -> mapper.apply(x).fetch()));
+		}
+
+		public final AsyncLinq<T> skip(final long count) {
+			return of(() -> new AsyncSkipFetch<T>(fetch(), count));
+		}
+
+		public final AsyncLinq<T> take(final int count) {
+			return of(() -> new AsyncTakeFetch<T>(fetch(), count));
+		}
+
+		public final AsyncLinq<T> where(final Predicate<T> predicate) {
+			return of(() -> new AsyncWhereFetch<T>(fetch(), predicate));
+		}
+
+		public final CompletionStage<Long> countAsync() {
+			var fetch = fetch();
+			var count = new AtomicLong(0L);
+
+			return AsyncFetch.loop(() -> fetch.nextAsync().thenApply(holder -> {
+				if (!holder.exists()) {
+					return false;
+				}
+
+				count.incrementAndGet();
+				return true;
+			})).whenComplete((v, e) -> fetch.close()).thenApply(v -> count.get());
+		}
+
+		public final CompletionStage<Void> forEachAsync(final Consumer<? super T> consumer) {
+			var fetch = fetch();
+
+			return AsyncFetch.loop(() -> fetch.nextAsync().thenApply(holder -> {
+				if (!holder.exists()) {
+					return false;
+				}
+
+				consumer.accept(holder.value());
+				return true;
+			})).whenComplete((v, e) -> fetch.close());
+		}
+
+		public final CompletionStage<ArrayList<T>> toListAsync() {
+			var fetch = fetch();
+			var list = new ArrayList<T>();
+
+			return AsyncFetch.loop(() -> fetch.nextAsync().thenApply(holder -> {
+				if (!holder.exists()) {
+					return false;
+				}
+
+				list.add(holder.value());
+				return true;
+			})).whenComplete((v, e) -> fetch.close()).thenApply(v -> list);
+		}
+	}
+
+	public static final class LinesLinq extends Linq<Line> {
+		private final Path path;
+		private final Charset charset;
+		private final int window;
+
+		public LinesLinq(Path path, Charset charset, int window) {
+			super(() -> new LinesFetch(path, charset, window));
+			this.path = path;
+			this.charset = charset;
+			this.window = window;
+		}
+
+		public final ParallelLinq<Line> asParallel() {
+			return asParallel(Runtime.getRuntime().availableProcessors());
+		}
+
+		public final ParallelLinq<Line> asParallel(final int parallelism) {
+			return new ParallelLinq<Line>(() -> {
+				var boundaries = split(parallelism * 4);
+				var partitions = new ArrayList<Linq<Line>>();
+
+				for (var i = 1; i < boundaries.size(); i++) {
+					var start = boundaries.get(i - 1);
+					var end = boundaries.get(i);
+					partitions.add(of(() -> new LinesFetch(path, charset, window, start, end)));
+				}
+
+				return partitions;
+			}, parallelism);
+		}
+
+		private List<Long> split(int count) {
+			try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				var size = channel.size();
+				var buffer = ByteBuffer.allocate(8192);
+				var boundaries = new ArrayList<Long>();
+				boundaries.add(0L);
+
+				for (var i = 1; i < count; i++) {
+					var last = boundaries.get(boundaries.size() - 1);
+					var position = Math.max(size * i / count - 1, last);
+					var boundary = size;
+
+					while (position < size && boundary == size) {
+						buffer.clear();
+						var read = channel.read(buffer, position);
+
+						for (var j = 0; j < read; j++) {
+							if (buffer.get(j) == '\n') {
+								boundary = position + j + 1;
+								break;
+							}
+						}
+
+						position += Math.max(read, 0);
+
+						if (read < 0) {
+							break;
+						}
+					}
+
+					if (boundary >= size) {
+						break;
+					}
+
+					boundaries.add(boundary);
+				}
+
+				boundaries.add(size);
+				return boundaries;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	public static final class ParallelLinq<T> {
+		private final Supplier<List<Linq<T>>> partitions;
+		private final int parallelism;
+
+		public ParallelLinq(Supplier<List<Linq<T>>> partitions, int parallelism) {
+			this.partitions = partitions;
+			this.parallelism = parallelism;
+		}
+
+		public final List<Linq<T>> partitions() {
+			return partitions.get();
+		}
+
+		public final ParallelLinq<T> where(final Predicate<T> predicate) {
+			return map(x -> x.where(predicate));
+		}
+
+		public final <U> ParallelLinq<U> select(final Function<T, U> mapper) {
+			return map(x -> x.select(mapper));
+		}
+
+		public final <U> ParallelLinq<U> selectMany(final Function<T, Linq<U>> mapper) {
+			return map(x -> x.selectMany(mapper));
+		}
+
+		private <U> ParallelLinq<U> map(Function<Linq<T>, Linq<U>> function) {
+			return new ParallelLinq<U>(() -> {
+				var list = new ArrayList<Linq<U>>();
+
+				for (var partition : partitions()) {
+					list.add(function.apply(partition));
+				}
+
+				return list;
+			}, parallelism);
+		}
+
+		public final long count() {
+			var count = 0L;
+
+			for (var value : run(Linq::count)) {
+				count += value;
+			}
+
+			return count;
+		}
+
+		public final long sum(final Function<T, Long> func) {
+			var sum = 0L;
+
+			for (var value : run(x -> x.sum(func))) {
+				sum += value;
+			}
+
+			return sum;
+		}
+
+		public final void forEach(final Consumer<? super T> consumer) {
+			run(x -> {
+				x.forEach(consumer);
+				return null;
+			});
+		}
+
+		public final ArrayList<T> toList() {
+			var list = new ArrayList<T>();
+
+			for (var values : run(Linq::toList)) {
+				list.addAll(values);
+			}
+
+			return list;
+		}
+
+		public final ArrayList<T> toListUnordered() {
+			var list = new ArrayList<T>();
+
+			forEach(x -> {
+				synchronized (list) {
+					list.add(x);
+				}
+			});
+
+			return list;
+		}
+
+		private <R> ArrayList<R> run(Function<Linq<T>, R> function) {
+			var partitions = partitions();
+			var executor = newDaemonPool(Math.max(1, Math.min(parallelism, partitions.size())), "linq-parallel");
+
+			try {
+				var futures = new ArrayList<Future<R>>();
+
+				for (var partition : partitions) {
+					futures.add(executor.submit(() -> function.apply(partition)));
+				}
+
+				var results = new ArrayList<R>();
+
+				for (var future : futures) {
+					results.add(future.get());
+				}
+
+				return results;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted", e);
+			} catch (ExecutionException e) {
+				throw unchecked(e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	public static final class TableLinq<T> extends Linq<T> {
+		private final TableColumns<T> columns;
+		private final Object[] data;
+		private final String[][] dictionaries;
+		private final int size;
+		private final SelectionFilter[] filters;
+
+		public TableLinq(TableColumns<T> columns, Object[] data, String[][] dictionaries, int size,
+				SelectionFilter[] filters) {
+			super(() -> new TableFetch<T>(columns, data, dictionaries, size, filters));
+			this.columns = columns;
+			this.data = data;
+			this.dictionaries = dictionaries;
+			this.size = size;
+			this.filters = filters;
+		}
+
+		@Override
+		public TableFetch<T> fetch() {
+			return new TableFetch<T>(columns, data, dictionaries, size, filters);
+		}
+
+		public final int size() {
+			return size;
+		}
+
+		public final long rowCount() {
+			var selection = new int[TableFetch.BATCH_SIZE];
+			var count = 0L;
+
+			for (var start = 0; start < size; start += TableFetch.BATCH_SIZE) {
+				count += TableFetch.select(filters, selection, start, Math.min(start + TableFetch.BATCH_SIZE, size));
+			}
+
+			return count;
+		}
+
+		public final TableLinq<T> whereInt(int column, IntPredicate predicate) {
+			var values = (int[]) column(column, 'I');
+			return filter((selection, count) -> {
+				var n = 0;
+
+				for (var i = 0; i < count; i++) {
+					var index = selection[i];
+
+					if (predicate.test(values[index])) {
+						selection[n++] = index;
+					}
+				}
+
+				return n;
+			});
+		}
+
+		public final TableLinq<T> whereLong(int column, LongPredicate predicate) {
+			var values = (long[]) column(column, 'J');
+			return filter((selection, count) -> {
+				var n = 0;
+
+				for (var i = 0; i < count; i++) {
+					var index = selection[i];
+
+					if (predicate.test(values[index])) {
+						selection[n++] = index;
+					}
+				}
+
+				return n;
+			});
+		}
+
+		public final TableLinq<T> whereDouble(int column, DoublePredicate predicate) {
+			var values = (double[]) column(column, 'D');
+			return filter((selection, count) -> {
+				var n = 0;
+
+				for (var i = 0; i < count; i++) {
+					var index = selection[i];
+
+					if (predicate.test(values[index])) {
+						selection[n++] = index;
+					}
+				}
+
+				return n;
+			});
+		}
+
+		public final TableLinq<T> whereString(int column, Predicate<String> predicate) {
+			var codes = (int[]) column(column, 'S');
+			var dictionary = dictionaries[column];
+			var matches = new boolean[dictionary.length];
+
+			for (var i = 0; i < dictionary.length; i++) {
+				matches[i] = predicate.test(dictionary[i]);
+			}
+
+			return filter((selection, count) -> {
+				var n = 0;
+
+				for (var i = 0; i < count; i++) {
+					var index = selection[i];
+
+					if (matches[codes[index]]) {
+						selection[n++] = index;
+					}
+				}
+
+				return n;
+			});
+		}
+
+		private Object column(int column, char type) {
+			if (columns.type(column) != type) {
+				throw new IllegalArgumentException("column type: " + column);
+			}
+
+			return data[column];
+		}
+
+		private TableLinq<T> filter(SelectionFilter filter) {
+			var next = Arrays.copyOf(filters, filters.length + 1);
+			next[filters.length] = filter;
+			return new TableLinq<T>(columns, data, dictionaries, size, next);
+		}
+	}
+
+	public static final class IntArrayLinq extends Linq<Integer> {
+		private final int[] array;
+		private final int lower;
+		private final int upper;
+		private final boolean filtered;
+
+		public IntArrayLinq(int[] array, int lower, int upper, boolean filtered) {
+			super(() -> new IntArrayFetch(array, lower, upper, filtered));
+			this.array = array;
+			this.lower = lower;
+			this.upper = upper;
+			this.filtered = filtered;
+		}
+
+		@Override
+		public IntArrayFetch fetch() {
+			return new IntArrayFetch(array, lower, upper, filtered);
+		}
+
+		public final IntArrayLinq whereBetween(int lower, int upper) {
+			return new IntArrayLinq(array, Math.max(this.lower, lower), Math.min(this.upper, upper), true);
+		}
+
+		public final IntArrayLinq whereGreaterThan(int value) {
+			if (value == Integer.MAX_VALUE) {
+				return new IntArrayLinq(array, 1, 0, true);
+			}
+
+			return whereBetween(value + 1, upper);
 		}
 
-		@Override
-		protected final Holder<T> internalNext() {
-			if (iterator == null) {
-				var map = new LinkedHashMap<K, Holder<T>>();
+		public final IntArrayLinq whereLessThan(int value) {
+			if (value == Integer.MIN_VALUE) {
+				return new IntArrayLinq(array, 1, 0, true);
+			}
 
-				while (true) {
-					var holder = left.next();
+			return whereBetween(lower, value - 1);
+		}
 
-					if (!holder.exists()) {
-						break;
-					}
+		public final long rowCount() {
+			if (!filtered) {
+				return array.length;
+			}
 
-					map.putIfAbsent(keyFactory.apply(holder.value()), holder);
-				}
+			var count = 0L;
 
-				while (true) {
-					var holder = right.next();
+			for (var value : array) {
+				count += value >= lower & value <= upper ? 1 : 0;
+			}
 
-					if (!holder.exists()) {
-						break;
-					}
+			return count;
+		}
 
-					map.putIfAbsent(keyFactory.apply(holder.value()), holder);
+		public final long sum() {
+			var sum = 0L;
+
+			if (!filtered) {
+				for (var value : array) {
+					sum += value;
 				}
 
-				iterator = map.values().iterator();
+				return sum;
 			}
 
-			if (iterator.hasNext()) {
-				return iterator.next();
+			for (var value : array) {
+				sum += value >= lower & value <= upper ? value : 0;
 			}
 
-			return Holder.none();
+			return sum;
 		}
 
-		@Override
-		protected final void internalClose() {
-			try (var _right = right;
-					var _left = left) {
+		public final int min() {
+			var min = Integer.MAX_VALUE;
+			var count = 0;
+
+			for (var value : array) {
+				var selected = !filtered | (value >= lower & value <= upper);
+				min = Math.min(min, selected ? value : min);
+				count += selected ? 1 : 0;
+			}
+
+			if (count == 0) {
+				throw new NoSuchElementException();
+			}
+
+			return min;
+		}
+
+		public final int max() {
+			var max = Integer.MIN_VALUE;
+			var count = 0;
+
+			for (var value : array) {
+				var selected = !filtered | (value >= lower & value <= upper);
+				max = Math.max(max, selected ? value : max);
+				count += selected ? 1 : 0;
+			}
+
+			if (count == 0) {
+				throw new NoSuchElementException();
 			}
+
+			return max;
 		}
 	}
 
-	public static final class UnionFetch<T> extends Fetch<T> {
-		private final Fetch<T> left;
-		private final Fetch<T> right;
-		private Iterator<Holder<T>> iterator;
+	public static final class LongArrayLinq extends Linq<Long> {
+		private final long[] array;
+		private final long lower;
+		private final long upper;
+		private final boolean filtered;
 
-		public UnionFetch(Fetch<T> left, Fetch<T> right) {
-			this.left = left;
-			this.right = right;
-			this.iterator = null;
+		public LongArrayLinq(long[] array, long lower, long upper, boolean filtered) {
+			super(() -> new LongArrayFetch(array, lower, upper, filtered));
+			this.array = array;
+			this.lower = lower;
+			this.upper = upper;
+			this.filtered = filtered;
 		}
 
 		@Override
-		protected final Holder<T> internalNext() {
-			if (iterator == null) {
-				var set = new LinkedHashSet<Holder<T>>();
+		public LongArrayFetch fetch() {
+			return new LongArrayFetch(array, lower, upper, filtered);
+		}
 
-				while (true) {
-					var holder = left.next();
+		public final LongArrayLinq whereBetween(long lower, long upper) {
+			return new LongArrayLinq(array, Math.max(this.lower, lower), Math.min(this.upper, upper), true);
+		}
 
-					if (!holder.exists()) {
-						break;
-					}
+		public final LongArrayLinq whereGreaterThan(long value) {
+			if (value == Long.MAX_VALUE) {
+				return new LongArrayLinq(array, 1, 0, true);
+			}
 
-					set.add(holder);
-				}
+			return whereBetween(value + 1, upper);
+		}
 
-				while (true) {
-					var holder = right.next();
+		public final LongArrayLinq whereLessThan(long value) {
+			if (value == Long.MIN_VALUE) {
+				return new LongArrayLinq(array, 1, 0, true);
+			}
 
-					if (!holder.exists()) {
-						break;
-					}
+			return whereBetween(lower, value - 1);
+		}
 
-					set.add(holder);
+		public final long rowCount() {
+			if (!filtered) {
+				return array.length;
+			}
+
+			var count = 0L;
+
+			for (var value : array) {
+				count += value >= lower & value <= upper ? 1 : 0;
+			}
+
+			return count;
+		}
+
+		public final long sum() {
+			var sum = 0L;
+
+			if (!filtered) {
+				for (var value : array) {
+					sum += value;
 				}
 
-				iterator = set.iterator();
+				return sum;
 			}
 
-			if (iterator.hasNext()) {
-				return iterator.next();
+			for (var value : array) {
+				sum += value >= lower & value <= upper ? value : 0;
 			}
 
-			return Holder.none();
+			return sum;
 		}
 
-		@Override
-		protected final void internalClose() {
-			try (var _right = right;
-					var _left = left) {
+		public final long min() {
+			var min = Long.MAX_VALUE;
+			var count = 0;
+
+			for (var value : array) {
+				var selected = !filtered | (value >= lower & value <= upper);
+				min = Math.min(min, selected ? value : min);
+				count += selected ? 1 : 0;
 			}
-		}
-	}
 
-	public static final class WhereFetch<T> extends Fetch<T> {
-		private final Fetch<T> fetch;
-		private final Predicate<T> predicate;
+			if (count == 0) {
+				throw new NoSuchElementException();
+			}
 
-		public WhereFetch(Fetch<T> fetch, Predicate<T> predicate) {
-			this.fetch = fetch;
-			this.predicate = predicate;
+			return min;
 		}
 
-		@Override
-		protected final Holder<T> internalNext() {
-			while (true) {
-				var holder = fetch.next();
+		public final long max() {
+			var max = Long.MIN_VALUE;
+			var count = 0;
 
-				if (!holder.exists()) {
-					return holder;
-				}
+			for (var value : array) {
+				var selected = !filtered | (value >= lower & value <= upper);
+				max = Math.max(max, selected ? value : max);
+				count += selected ? 1 : 0;
+			}
 
-				if (predicate.test(holder.value())) {
-					return holder;
-				}
+			if (count == 0) {
+				throw new NoSuchElementException();
 			}
-		}
 
-		@Override
-		protected void internalClose() {
-			fetch.close();
+			return max;
 		}
 	}
 
-	public static final class ZipFetch<TLeft, TRight> extends Fetch<Tuple2<TLeft, TRight>> {
-		private final Fetch<TLeft> left;
-		private final Fetch<TRight> right;
+	public static final class DoubleArrayLinq extends Linq<Double> {
+		private final double[] array;
+		private final double lower;
+		private final double upper;
+		private final boolean filtered;
 
-		public ZipFetch(Fetch<TLeft> left, Fetch<TRight> right) {
-			this.left = left;
-			this.right = right;
+		public DoubleArrayLinq(double[] array, double lower, double upper, boolean filtered) {
+			super(() -> new DoubleArrayFetch(array, lower, upper, filtered));
+			this.array = array;
+			this.lower = lower;
+			this.upper = upper;
+			this.filtered = filtered;
 		}
 
 		@Override
-		protected final Holder<Tuple2<TLeft, TRight>> internalNext() {
-			var leftHolder = left.next();
+		public DoubleArrayFetch fetch() {
+			return new DoubleArrayFetch(array, lower, upper, filtered);
+		}
 
-			if (!leftHolder.exists()) {
-				return Holder.none();
+		public final DoubleArrayLinq whereBetween(double lower, double upper) {
+			return new DoubleArrayLinq(array, Math.max(this.lower, lower), Math.min(this.upper, upper), true);
+		}
+
+		public final DoubleArrayLinq whereGreaterThan(double value) {
+			if (value == Double.POSITIVE_INFINITY) {
+				return new DoubleArrayLinq(array, 1, 0, true);
 			}
 
-			var rightHolder = right.next();
+			return whereBetween(Math.nextUp(value), upper);
+		}
 
-			if (!rightHolder.exists()) {
-				return Holder.none();
+		public final DoubleArrayLinq whereLessThan(double value) {
+			if (value == Double.NEGATIVE_INFINITY) {
+				return new DoubleArrayLinq(array, 1, 0, true);
 			}
 
-			return Holder.of(new Tuple2<TLeft, TRight>(leftHolder.value(), rightHolder.value()));
+			return whereBetween(lower, Math.nextDown(value));
 		}
 
-		@Override
-		protected final void internalClose() {
-			try (var _right = right;
-					var _left = left) {
+		public final long rowCount() {
+			if (!filtered) {
+				return array.length;
 			}
-		}
-	}
 
-	public static final class OrderLinq<T> extends Linq<T> {
-		private final Supplier<OrderFetch<T>> supplier;
+			var count = 0L;
 
-		public OrderLinq(Supplier<OrderFetch<T>> supplier) {
-			super(supplier);
-			this.supplier = supplier;
+			for (var value : array) {
+				count += value >= lower & value <= upper ? 1 : 0;
+			}
+
+			return count;
 		}
 
-		@Override
-		public OrderFetch<T> fetch() {
-			return supplier.get();
+		public final double sum() {
+			var sum = 0.0;
+
+			if (!filtered) {
+				for (var value : array) {
+					sum += value;
+				}
+
+				return sum;
+			}
+
+			for (var value : array) {
+				sum += value >= lower & value <= upper ? value : 0;
+			}
+
+			return sum;
 		}
 
-		public final <U extends Comparable<U>> OrderLinq<T> thenBy(final Function<T, U> keySelector) {
-			return new OrderLinq<T>(() -> fetch().thenBy(keySelector));
+		public final double min() {
+			var min = Double.POSITIVE_INFINITY;
+			var count = 0;
+
+			for (var value : array) {
+				var selected = !filtered | (value >= lower & value <= upper);
+				min = Math.min(min, selected ? value : min);
+				count += selected ? 1 : 0;
+			}
+
+			if (count == 0) {
+				throw new NoSuchElementException();
+			}
+
+			return min;
 		}
 
-		public final <U extends Comparable<U>> OrderLinq<T> thenByDescending(final Function<T, U> keySelector) {
-			return new OrderLinq<T>(() -> fetch().thenByDescending(keySelector));
+		public final double max() {
+			var max = Double.NEGATIVE_INFINITY;
+			var count = 0;
+
+			for (var value : array) {
+				var selected = !filtered | (value >= lower & value <= upper);
+				max = Math.max(max, selected ? value : max);
+				count += selected ? 1 : 0;
+			}
+
+			if (count == 0) {
+				throw new NoSuchElementException();
+			}
+
+			return max;
 		}
 	}
 
 	public static final <T> Linq<T> empty() {
-		return of(() -> new EmptyFetch<T>());
+		return new Linq<T>(() -> new EmptyFetch<T>(), null, "empty", null);
+	}
+
+	public static final Linq<CsvRow> csv(final Path path) {
+		return csv(path, ',', StandardCharsets.UTF_8);
+	}
+
+	public static final Linq<CsvRow> csv(final Path path, final char delimiter) {
+		return csv(path, delimiter, StandardCharsets.UTF_8);
+	}
+
+	public static final Linq<CsvRow> csv(final Path path, final char delimiter, final Charset charset) {
+		checkCharset(charset);
+
+		if (delimiter >= 0x80 || delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+			throw new IllegalArgumentException("unsupported delimiter: " + delimiter);
+		}
+
+		return of(() -> new CsvFetch(path, delimiter, charset, 1 << 30));
 	}
 
 	public static final <T> Linq<T> from(final Iterable<T> iterable) {
-		return of(() -> new IterableFetch<T>(iterable));
+		return new Linq<T>(() -> new IterableFetch<T>(iterable), null, "from", iterable);
 	}
 
 	public static final <T> Linq<T> from(final Stream<T> stream) {
 		return of(() -> new StreamFetch<T>(stream));
 	}
 
+	public static final <T> Linq<T> fromBinaryFile(final Path path, final BinaryCodec<T> codec) {
+		return of(() -> new BinaryFetch<T>(path, codec, 1 << 30));
+	}
+
+	public static final <T> Linq<T> fromBinaryFile(final Path path, final BinaryColumns<T> columns) {
+		return of(() -> new ColumnsFetch<T>(path, columns, 1 << 30));
+	}
+
+	public static final <T> Linq<T> fromPublisher(final Flow.Publisher<T> publisher, final int bufferSize) {
+		checkPositive(bufferSize, "buffer size");
+		return of(() -> new PublisherFetch<T>(publisher, bufferSize));
+	}
+
 	@SafeVarargs
 	public static final <T> Linq<T> from(final T... xs) {
-		return of(() -> new ArrayFetch<T>(xs));
+		return new Linq<T>(() -> new ArrayFetch<T>(xs), null, "from", xs.length);
+	}
+
+	public static final Linq<JsonLine> jsonLines(final Path path) {
+		return lines(path).where(x -> !isBlank(x)).select(JsonLine::new);
+	}
+
+	private static final boolean isBlank(Line line) {
+		for (var i = 0; i < line.byteLength(); i++) {
+			var b = line.byteAt(i);
+
+			if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public static final LinesLinq lines(final Path path) {
+		return lines(path, StandardCharsets.UTF_8);
+	}
+
+	public static final LinesLinq lines(final Path path, final Charset charset) {
+		checkCharset(charset);
+		return new LinesLinq(path, charset, 1 << 30);
+	}
+
+	public static final IntArrayLinq ints(final int... array) {
+		return new IntArrayLinq(array, Integer.MIN_VALUE, Integer.MAX_VALUE, false);
+	}
+
+	public static final LongArrayLinq longs(final long... array) {
+		return new LongArrayLinq(array, Long.MIN_VALUE, Long.MAX_VALUE, false);
+	}
+
+	public static final DoubleArrayLinq doubles(final double... array) {
+		return new DoubleArrayLinq(array, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false);
 	}
 
 	public static final Linq<Integer> range(final int start, final int count) {
-		return of(() -> new RangeFetch(start, count));
+		return new Linq<Integer>(() -> new RangeFetch(start, count), null, "range", count);
+	}
+
+	public static final Linq<BinaryRecord> records(final Path path, final int recordSize) {
+		return records(path, recordSize, ByteOrder.BIG_ENDIAN);
+	}
+
+	public static final Linq<BinaryRecord> records(final Path path, final int recordSize, final ByteOrder order) {
+		checkPositive(recordSize, "record size");
+		return of(() -> new RecordsFetch(path, recordSize, order, 1 << 30));
 	}
 
 	public static final <T> Linq<T> repeat(final T value, final int count) {
-		return of(() -> new RepeatFetch<T>(value, count));
+		return new Linq<T>(() -> new RepeatFetch<T>(value, count), null, "repeat", count);
 	}
 
 	public final FetchIterator<T> iterator() {
@@ -1589,12 +6931,12 @@ public class Linq<T> {
 			Function<TRight, TKey> rightKeyFactory,
 			BiFunction<T, Linq<TRight>, TResult> resultFactory) {
 
-		return of(() -> new GroupJoinFetch<T, TRight, TKey, TResult>(
+		return new Linq<TResult>(() -> new GroupJoinFetch<T, TRight, TKey, TResult>(
 				fetch(),
 				right.fetch(),
 				leftKeyFactory,
 				rightKeyFactory,
-				resultFactory));
+				resultFactory), this, "groupJoin", right);
 	}
 
 	public final <TRight, TKey, TResult> Linq<TResult> join(
@@ -1603,142 +6945,463 @@ public class Linq<T> {
 			Function<TRight, TKey> rightKeyFactory,
 			BiFunction<T, Linq<TRight>, TResult> resultFactory) {
 
-		return of(() -> new JoinFetch<T, TRight, TKey, TResult>(
+		return new Linq<TResult>(() -> new JoinFetch<T, TRight, TKey, TResult>(
 				fetch(),
 				right.fetch(),
 				leftKeyFactory,
 				rightKeyFactory,
-				resultFactory));
+				resultFactory), this, "join", right);
+	}
+
+	static final int FETCH_BATCH = 256;
+	static final Set<String> BUFFERING_OPERATORS = Set.of("orderBy", "top", "groupBy", "reverse", "takeLast",
+			"skipLast", "distinct", "union", "except", "exceptBy", "intersect", "intersectBy", "join", "groupJoin",
+			"memoize");
+	static final Set<String> FUSED_OPERATORS = Set.of("where", "select", "selectWhere", "cast", "ofType", "skip",
+			"take");
+	static final int BINARY_MAGIC = 0x4C4E5142;
+	static final int BINARY_HEADER = 16;
+	static final byte BINARY_ROWS = 0;
+	static final byte BINARY_COLUMNS = 1;
+
+	private final Supplier<? extends Fetch<T>> supplier;
+	private final Linq<?> source;
+	private final String operator;
+	private final Object argument;
+
+	public Linq(Supplier<? extends Fetch<T>> supplier) {
+		this(supplier, null, null, null);
+	}
+
+	Linq(Supplier<? extends Fetch<T>> supplier, Linq<?> source, String operator, Object argument) {
+		this.supplier = supplier;
+		this.source = source;
+		this.operator = operator;
+		this.argument = argument;
+	}
+
+	public Fetch<T> fetch() {
+		return supplier.get();
+	}
+
+	public static <T> Linq<T> of(Supplier<Fetch<T>> supplier) {
+		return new Linq<T>(supplier);
+	}
+
+	@SuppressWarnings("unchecked")
+	public final <U> Linq<U> cast() {
+		if ("where".equals(operator) || "select".equals(operator) || "selectWhere".equals(operator)) {
+			return new Linq<U>(() -> (Fetch<U>) fetch(), source, operator, argument);
+		}
+
+		return new Linq<U>(() -> new CastFetch<T, U>(fetch()), this, "cast", null);
+	}
+
+	public final Plan plan() {
+		var inputs = new ArrayList<Plan>();
+
+		if (source != null) {
+			inputs.add(source.plan());
+		}
+
+		if (argument instanceof Linq) {
+			inputs.add(((Linq<?>) argument).plan());
+		}
+
+		var input = inputs.isEmpty() ? null : inputs.get(0);
+		var name = operator != null ? operator : getClass() == Linq.class ? "source" : getClass().getSimpleName();
+		var size = -1L;
+		var distinct = false;
+		var sorted = false;
+
+		switch (name) {
+		case "from":
+			size = argument instanceof Integer ? (Integer) argument
+					: argument instanceof Collection ? ((Collection<?>) argument).size() : -1L;
+			break;
+		case "range":
+			size = (Integer) argument;
+			distinct = true;
+			break;
+		case "repeat":
+			size = (Integer) argument;
+			break;
+		case "empty":
+			size = 0L;
+			distinct = true;
+			break;
+		case "select":
+		case "cast":
+			size = input.size;
+			break;
+		case "where":
+		case "ofType":
+			distinct = input.distinct;
+			sorted = input.sorted;
+			break;
+		case "orderBy":
+			size = input.size;
+			distinct = input.distinct;
+			sorted = true;
+			break;
+		case "reverse":
+			size = input.size;
+			distinct = input.distinct;
+			break;
+		case "take":
+			size = input.size < 0 ? -1L : Math.min(input.size, Math.max(0, (Integer) argument));
+			distinct = input.distinct;
+			sorted = input.sorted;
+			break;
+		case "top":
+			size = input.size < 0 ? -1L : Math.min(input.size, (Integer) argument);
+			distinct = input.distinct;
+			sorted = true;
+			break;
+		case "skip":
+			size = input.size < 0 ? -1L : Math.max(0L, input.size - (Long) argument);
+			distinct = input.distinct;
+			sorted = input.sorted;
+			break;
+		case "concat":
+			size = input.size < 0 || inputs.get(1).size < 0 ? -1L : input.size + inputs.get(1).size;
+			break;
+		case "append":
+		case "prepend":
+			size = input.size < 0 ? -1L : input.size + 1;
+			break;
+		case "defaultIfEmpty":
+			size = input.size < 0 ? -1L : Math.max(1L, input.size);
+			break;
+		case "takeLast":
+			size = input.size < 0 ? -1L : Math.min(input.size, Math.max(0, (Integer) argument));
+			break;
+		case "skipLast":
+			size = input.size < 0 ? -1L : Math.max(0L, input.size - (Integer) argument);
+			break;
+		case "chunk":
+			size = input.size < 0 || (Integer) argument <= 0 ? -1L
+					: (input.size + (Integer) argument - 1) / (Integer) argument;
+			break;
+		case "zip":
+			size = input.size < 0 || inputs.get(1).size < 0 ? -1L : Math.min(input.size, inputs.get(1).size);
+			break;
+		case "compile":
+		case "memoize":
+		case "named":
+			size = input.size;
+			distinct = input.distinct;
+			sorted = input.sorted;
+			break;
+		case "pipelined":
+		case "prefetch":
+		case "selectAsync":
+		case "selectAsyncUnordered":
+			size = input.size;
+			break;
+		case "distinct":
+		case "union":
+		case "groupBy":
+			distinct = true;
+			break;
+		default:
+			break;
+		}
+
+		return new Plan(name, Collections.unmodifiableList(inputs), size, distinct, sorted,
+				BUFFERING_OPERATORS.contains(name));
+	}
+
+	public static void instrument(MetricsSink sink) {
+		FetchAnalysis.sink(sink);
+	}
+
+	public static MetricsSink instrumentation() {
+		return FetchAnalysis.sink();
+	}
+
+	public static boolean recordEvents() {
+		return FetchAnalysis.listen();
+	}
+
+	public final Linq<T> named(String name) {
+		Objects.requireNonNull(name);
+		return new Linq<T>(
+				() -> new NamedFetch<T>(FetchAnalysis.named(name, this::fetch), QueryLatency.of(name).histogram()),
+				this, "named", name);
+	}
+
+	public static LatencySnapshot latency(String name) {
+		var latency = QueryLatency.QUERIES.get(name);
+		return latency == null ? null : latency.snapshot();
 	}
 
-	private final Supplier<? extends Fetch<T>> supplier;
+	public static Map<String, LatencySnapshot> latencies() {
+		var snapshots = new LinkedHashMap<String, LatencySnapshot>();
 
-	public Linq(Supplier<? extends Fetch<T>> supplier) {
-		this.supplier = supplier;
+		for (var entry : QueryLatency.QUERIES.entrySet()) {
+			snapshots.put(entry.getKey(), entry.getValue().snapshot());
+		}
+
+		return snapshots;
 	}
 
-	public Fetch<T> fetch() {
-		return supplier.get();
+	public final String explain() {
+		var builder = new StringBuilder();
+		plan().format(builder, 0);
+		return builder.toString();
 	}
 
-	public static <T> Linq<T> of(Supplier<Fetch<T>> supplier) {
-		return new Linq<T>(supplier);
+	public final String explainAnalyze() {
+		var analysis = FetchAnalysis.begin();
+		var rows = 0L;
+		var start = System.nanoTime();
+
+		try (var fetch = fetch()) {
+			while (fetch.next().exists()) {
+				rows++;
+			}
+		} finally {
+			analysis.end();
+		}
+
+		var elapsed = System.nanoTime() - start;
+		var builder = new StringBuilder(explain());
+		builder.append("execution rows=").append(rows).append(" time=").append(FetchStats.millis(elapsed)).append('\n');
+		analysis.format(builder);
+		return builder.toString();
 	}
 
-	public final <U> Linq<U> cast() {
-		return of(() -> new CastFetch<T, U>(fetch()));
+	public final Linq<T> compile() {
+		var operators = new ArrayList<String>();
+		var arguments = new ArrayList<Object>();
+		Linq<?> current = this;
+
+		while (current.source != null && FUSED_OPERATORS.contains(current.operator)) {
+			operators.add(current.operator);
+			arguments.add(current.argument);
+			current = current.source;
+		}
+
+		if (operators.size() < 2) {
+			return this;
+		}
+
+		Collections.reverse(operators);
+		Collections.reverse(arguments);
+
+		var source = current;
+		var fusedOperators = operators.toArray(new String[0]);
+		var fusedArguments = arguments.toArray();
+		return new Linq<T>(() -> new FusedFetch<T>(source.fetch(), fusedOperators, fusedArguments), null, "compile",
+				this);
 	}
 
 	public final Linq<List<T>> chunk(final int size) {
-		return of(() -> new ChunkFetch<T>(fetch(), size));
+		return new Linq<List<T>>(() -> new ChunkFetch<T>(fetch(), size), this, "chunk", size);
 	}
 
 	public final Linq<T> concat(final Linq<T> right) {
-		return of(() -> new ConcatFetch<T>(fetch(), right.fetch()));
+		return new Linq<T>(() -> new ConcatFetch<T>(fetch(), right.fetch()), this, "concat", right);
+	}
+
+	public final Linq<T> pipelined() {
+		return pipelined(256);
+	}
+
+	public final Linq<T> pipelined(final int batchSize) {
+		checkPositive(batchSize, "batch size");
+		return new Linq<T>(() -> new StageFetch<T>(fetch(), batchSize, 4), this, "pipelined", batchSize);
 	}
 
 	public final Linq<T> append(final T value) {
-		return of(() -> new ConcatFetch<T>(fetch(), Linq.from(value).fetch()));
+		return new Linq<T>(() -> new ConcatFetch<T>(fetch(), Linq.from(value).fetch()), this, "append", null);
 	}
 
 	public final Linq<T> defaultIfEmpty(final T defaultValue) {
-		return of(() -> new DefaultIfEmptyFetch<T>(fetch(), defaultValue));
+		return new Linq<T>(() -> new DefaultIfEmptyFetch<T>(fetch(), defaultValue), this, "defaultIfEmpty", null);
 	}
 
 	public final Linq<T> distinct() {
-		return of(() -> new DistinctFetch<T>(fetch()));
+		if (plan().distinct) {
+			return this;
+		}
+
+		return new Linq<T>(() -> new DistinctFetch<T>(fetch()), this, "distinct", null);
 	}
 
 	public final <K> Linq<T> distinctBy(final Function<T, K> keyFactory) {
-		return of(() -> new DistinctByFetch<T, K>(fetch(), keyFactory));
+		return new Linq<T>(() -> new DistinctByFetch<T, K>(fetch(), keyFactory), this, "distinctBy", keyFactory);
 	}
 
 	public final Linq<T> except(final Linq<T> right) {
-		return of(() -> new ExceptFetch<T>(fetch(), right.fetch()));
+		return new Linq<T>(() -> new ExceptFetch<T>(fetch(), right.fetch()), this, "except", right);
 	}
 
 	public final <K> Linq<T> exceptBy(final Linq<T> right, final Function<T, K> keyFactory) {
-		return of(() -> new ExceptByFetch<T, K>(fetch(), right.fetch(), keyFactory));
+		return new Linq<T>(() -> new ExceptByFetch<T, K>(fetch(), right.fetch(), keyFactory), this, "exceptBy", right);
 	}
 
 	public final <K> Linq<Entry<K, List<T>>> groupBy(final Function<T, K> keySelector) {
-		return of(() -> new GroupByFetch<T, K>(fetch(), keySelector));
+		return new Linq<Entry<K, List<T>>>(() -> new GroupByFetch<T, K>(fetch(), keySelector), this, "groupBy",
+				keySelector);
 	}
 
 	public final Linq<T> intersect(final Linq<T> right) {
-		return of(() -> new IntersectFetch<T>(fetch(), right.fetch()));
+		return new Linq<T>(() -> new IntersectFetch<T>(fetch(), right.fetch()), this, "intersect", right);
 	}
 
 	public final <TKey> Linq<T> intersectBy(final Linq<TKey> right, final Function<T, TKey> keyFactory) {
-		return of(() -> new IntersectByFetch<T, TKey>(fetch(), right.fetch(), keyFactory));
+		return new Linq<T>(() -> new IntersectByFetch<T, TKey>(fetch(), right.fetch(), keyFactory), this,
+				"intersectBy", right);
+	}
+
+	public final MemoizeLinq<T> memoize() {
+		return new MemoizeLinq<T>(this, Integer.MAX_VALUE);
+	}
+
+	public final MemoizeLinq<T> memoize(final int limit) {
+		return new MemoizeLinq<T>(this, limit);
 	}
 
+	@SuppressWarnings("unchecked")
 	public final <U> Linq<U> ofType(final Class<U> type) {
-		return of(() -> new TypeFetch<T, U>(fetch(), type));
+		if ("where".equals(operator) || "select".equals(operator) || "selectWhere".equals(operator)) {
+			return ((Linq<U>) this).where(type::isInstance);
+		}
+
+		return new Linq<U>(() -> new TypeFetch<T, U>(fetch(), type), this, "ofType", type);
 	}
 
 	public final <U extends Comparable<U>> OrderLinq<T> orderBy(final Function<T, U> keySelector) {
-		return new OrderLinq<T>(() -> new OrderFetch<T>(fetch(), Comparator.comparing(keySelector)));
+		return new OrderLinq<T>(this, Comparator.comparing(keySelector));
 	}
 
 	public final <U extends Comparable<U>> OrderLinq<T> orderByDescending(final Function<T, U> keySelector) {
-		return new OrderLinq<T>(() -> new OrderFetch<T>(fetch(), Comparator.comparing(keySelector, Comparator.reverseOrder())));
+		return new OrderLinq<T>(this, Comparator.comparing(keySelector, Comparator.reverseOrder()));
+	}
+
+	public final Linq<T> prefetch(final int bufferSize) {
+		return new Linq<T>(() -> new PrefetchFetch<T>(fetch(), bufferSize), this, "prefetch", bufferSize);
 	}
 
 	public final Linq<T> prepend(T value) {
-		return of(() -> new ConcatFetch<T>(Linq.from(value).fetch(), fetch()));
+		return new Linq<T>(() -> new ConcatFetch<T>(Linq.from(value).fetch(), fetch()), this, "prepend", null);
 	}
 
 	public final Linq<T> reverse() {
-		return of(() -> new ReverseFetch<T>(fetch()));
+		return new Linq<T>(() -> new ReverseFetch<T>(fetch()), this, "reverse", null);
 	}
 
+	@SuppressWarnings("unchecked")
 	public final <U> Linq<U> select(final Function<T, U> mapper) {
-		return of(() -> new SelectFetch<T, U>(fetch(), mapper));
+		if ("select".equals(operator)) {
+			var input = (Linq<Object>) source;
+			var function = ((Function<Object, T>) argument).andThen(mapper);
+			return new Linq<U>(() -> new SelectFetch<Object, U>(input.fetch(), function), input, "select", function);
+		}
+
+		return new Linq<U>(() -> new SelectFetch<T, U>(fetch(), mapper), this, "select", mapper);
+	}
+
+	public final <U> Linq<U> selectAsync(final Function<T, U> mapper, final int maxConcurrency) {
+		checkConcurrency(maxConcurrency);
+		return new Linq<U>(() -> new SelectAsyncFetch<T, U>(fetch(), mapper, maxConcurrency, true), this, "selectAsync",
+				maxConcurrency);
+	}
+
+	public final <U> Linq<U> selectAsyncUnordered(final Function<T, U> mapper, final int maxConcurrency) {
+		checkConcurrency(maxConcurrency);
+		return new Linq<U>(() -> new SelectAsyncFetch<T, U>(fetch(), mapper, maxConcurrency, false), this,
+				"selectAsyncUnordered", maxConcurrency);
 	}
 
 	public final <U> Linq<U> selectMany(final Function<T, Linq<U>> mapper) {
-		return of(() -> new SelectManyFetch<T, U>(fetch(), x -> mapper.apply(x).fetch()));
+		return new Linq<U>(() -> new SelectManyFetch<T, U>(fetch(), x -> mapper.apply(x).fetch()), this, "selectMany",
+				mapper);
 	}
 
 	public final Linq<T> take(int count) {
-		return of(() -> new TakeFetch<T>(fetch(), count));
+		if (this instanceof OrderLinq && "orderBy".equals(operator) && count > 0) {
+			var order = (OrderLinq<T>) this;
+			var input = order.input();
+			var comparator = order.comparator();
+			return new Linq<T>(() -> new OrderFetch<T>(input.fetch(), comparator, count), input, "top", count);
+		}
+
+		return new Linq<T>(() -> new TakeFetch<T>(fetch(), count), this, "take", count);
 	}
 
 	public final Linq<T> takeLast(final int size) {
-		return of(() -> new TakeLastFetch<T>(fetch(), size));
+		return new Linq<T>(() -> new TakeLastFetch<T>(fetch(), size), this, "takeLast", size);
 	}
 
 	public final Linq<T> takeWhile(Predicate<T> predicate) {
-		return of(() -> new TakeWhileFetch<T>(fetch(), predicate));
+		return new Linq<T>(() -> new TakeWhileFetch<T>(fetch(), predicate), this, "takeWhile", predicate);
 	}
 
 	public final Linq<T> union(final Linq<T> right) {
-		return of(() -> new UnionFetch<T>(fetch(), right.fetch()));
+		return new Linq<T>(() -> new UnionFetch<T>(fetch(), right.fetch()), this, "union", right);
 	}
 
 	public final <TKey> Linq<T> unionBy(final Linq<T> right, final Function<T, TKey> keyFactory) {
-		return of(() -> new UnionByFetch<T, TKey>(fetch(), right.fetch(), keyFactory));
+		return new Linq<T>(() -> new UnionByFetch<T, TKey>(fetch(), right.fetch(), keyFactory), this, "unionBy", right);
 	}
 
+	@SuppressWarnings("unchecked")
 	public final Linq<T> where(final Predicate<T> predicatge) {
-		return of(() -> new WhereFetch<T>(fetch(), predicatge));
+		if (this instanceof OrderLinq && "orderBy".equals(operator)) {
+			var order = (OrderLinq<T>) this;
+			return new OrderLinq<T>(order.input().where(predicatge), order.comparator());
+		}
+
+		if ("reverse".equals(operator)) {
+			return ((Linq<T>) source).where(predicatge).reverse();
+		}
+
+		if ("concat".equals(operator)) {
+			return ((Linq<T>) source).where(predicatge).concat(((Linq<T>) argument).where(predicatge));
+		}
+
+		if ("where".equals(operator)) {
+			var input = (Linq<T>) source;
+			var first = (Predicate<T>) argument;
+			Predicate<T> predicate = x -> first.test(x) && predicatge.test(x);
+			return new Linq<T>(() -> new WhereFetch<T>(input.fetch(), predicate), input, "where", predicate);
+		}
+
+		if ("select".equals(operator)) {
+			var input = (Linq<Object>) source;
+			var function = (Function<Object, T>) argument;
+			return new Linq<T>(() -> new SelectWhereFetch<Object, T>(input.fetch(), function, predicatge), input,
+					"selectWhere", new Tuple2<Function<Object, T>, Predicate<T>>(function, predicatge));
+		}
+
+		if ("selectWhere".equals(operator)) {
+			var input = (Linq<Object>) source;
+			var stage = (Tuple2<Function<Object, T>, Predicate<T>>) argument;
+			Predicate<T> predicate = x -> stage.value2.test(x) && predicatge.test(x);
+			return new Linq<T>(() -> new SelectWhereFetch<Object, T>(input.fetch(), stage.value1, predicate), input,
+					"selectWhere", new Tuple2<Function<Object, T>, Predicate<T>>(stage.value1, predicate));
+		}
+
+		return new Linq<T>(() -> new WhereFetch<T>(fetch(), predicatge), this, "where", predicatge);
 	}
 
 	public final <TRight> Linq<Tuple2<T, TRight>> zip(final Linq<TRight> right) {
-		return of(() -> new ZipFetch<T, TRight>(fetch(), right.fetch()));
+		return new Linq<Tuple2<T, TRight>>(() -> new ZipFetch<T, TRight>(fetch(), right.fetch()), this, "zip", right);
 	}
 
 	public final Linq<T> skip(final long count) {
-		return of(() -> new SkipFetch<T>(fetch(), count));
+		return new Linq<T>(() -> new SkipFetch<T>(fetch(), count), this, "skip", count);
 	}
 
 	public final Linq<T> skipLast(final int size) {
-		return of(() -> new SkipLastFetch<T>(fetch(), size));
+		return new Linq<T>(() -> new SkipLastFetch<T>(fetch(), size), this, "skipLast", size);
 	}
 
 	public final Linq<T> skipWhile(Predicate<T> predicate) {
-		return of(() -> new SkipWhileFetch<T>(fetch(), predicate));
+		return new Linq<T>(() -> new SkipWhileFetch<T>(fetch(), predicate), this, "skipWhile", predicate);
 	}
 
 	public final T aggregate(BiFunction<T, T, T> func) {
@@ -1796,12 +7459,21 @@ public class Linq<T> {
 	}
 
 	public final boolean any() {
+		if ("orderBy".equals(operator) || "reverse".equals(operator)) {
+			return source.any();
+		}
+
 		try (var fetch = fetch()) {
 			return fetch.next().exists();
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	public final boolean any(Predicate<T> predicate) {
+		if ("orderBy".equals(operator) || "reverse".equals(operator)) {
+			return ((Linq<T>) source).any(predicate);
+		}
+
 		try (var fetch = fetch()) {
 			while (true) {
 				var current = fetch.next();
@@ -1835,7 +7507,12 @@ public class Linq<T> {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	public final boolean contains(T target) {
+		if ("orderBy".equals(operator) || "reverse".equals(operator)) {
+			return ((Linq<T>) source).contains(target);
+		}
+
 		try (var fetch = fetch()) {
 			while (true) {
 				var current = fetch.next();
@@ -1852,14 +7529,23 @@ public class Linq<T> {
 	}
 
 	public final long count() {
+		if ("orderBy".equals(operator) || "reverse".equals(operator)) {
+			return source.count();
+		}
+
 		try (var fetch = fetch()) {
+			var batch = new Object[FETCH_BATCH];
 			var count = 0L;
 
-			while (fetch.next().exists()) {
-				count++;
-			}
+			while (true) {
+				var size = fetch.nextBatch(batch);
 
-			return count;
+				if (size == 0) {
+					return count;
+				}
+
+				count += size;
+			}
 		}
 	}
 
@@ -1903,7 +7589,12 @@ public class Linq<T> {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	public final T first() {
+		if ("reverse".equals(operator)) {
+			return ((Linq<T>) source).last();
+		}
+
 		try (var fetch = fetch()) {
 			var first = fetch.next();
 
@@ -1915,7 +7606,12 @@ public class Linq<T> {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	public final T firstOrDefault(T defaultValue) {
+		if ("reverse".equals(operator)) {
+			return ((Linq<T>) source).lastOrDefault(defaultValue);
+		}
+
 		try (var fetch = fetch()) {
 			var first = fetch.next();
 
@@ -1927,7 +7623,12 @@ public class Linq<T> {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	public final T last() {
+		if ("reverse".equals(operator)) {
+			return ((Linq<T>) source).first();
+		}
+
 		try (var fetch = fetch()) {
 			var last = fetch.next();
 
@@ -1947,7 +7648,12 @@ public class Linq<T> {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	public final T lastOrDefault(T defaultValue) {
+		if ("reverse".equals(operator)) {
+			return ((Linq<T>) source).firstOrDefault(defaultValue);
+		}
+
 		try (var fetch = fetch()) {
 			var last = fetch.next();
 
@@ -2119,6 +7825,181 @@ public class Linq<T> {
 		}
 	}
 
+	@SafeVarargs
+	public final <R> ArrayList<R> multicast(Function<Linq<T>, R>... branches) {
+		var list = new ArrayList<Function<Linq<T>, R>>(branches.length);
+
+		for (var branch : branches) {
+			list.add(branch);
+		}
+
+		return multicast(256, list);
+	}
+
+	@SafeVarargs
+	public final <R> ArrayList<R> multicast(int bufferSize, Function<Linq<T>, R>... branches) {
+		var list = new ArrayList<Function<Linq<T>, R>>(branches.length);
+
+		for (var branch : branches) {
+			list.add(branch);
+		}
+
+		return multicast(bufferSize, list);
+	}
+
+	public final <R> ArrayList<R> multicast(int bufferSize, List<Function<Linq<T>, R>> branches) {
+		checkPositive(bufferSize, "buffer size");
+
+		if (branches.isEmpty()) {
+			return new ArrayList<R>();
+		}
+
+		var channels = new ArrayList<MulticastChannel<T>>();
+		var threads = new ArrayList<Thread>();
+		var results = new ArrayList<R>(Collections.nCopies(branches.size(), null));
+		var errors = new ArrayList<Throwable>(Collections.nCopies(branches.size(), null));
+
+		for (var i = 0; i < branches.size(); i++) {
+			var index = i;
+			var branch = branches.get(i);
+			var channel = new MulticastChannel<T>(bufferSize);
+			var thread = new Thread(() -> {
+				try {
+					results.set(index, branch.apply(of(() -> new MulticastFetch<T>(channel))));
+				} catch (RuntimeException | Error e) {
+					errors.set(index, e);
+				} finally {
+					channel.cancel();
+				}
+			}, "linq-multicast-" + i);
+
+			thread.setDaemon(true);
+			channels.add(channel);
+			threads.add(thread);
+		}
+
+		for (var thread : threads) {
+			thread.start();
+		}
+
+		try (var fetch = fetch()) {
+			while (true) {
+				var holder = fetch.next();
+				var open = false;
+
+				for (var channel : channels) {
+					open |= channel.put(holder);
+				}
+
+				if (!holder.exists() || !open) {
+					break;
+				}
+			}
+		} catch (RuntimeException | Error e) {
+			for (var channel : channels) {
+				channel.fail(e);
+			}
+
+			join(threads);
+			throw e;
+		}
+
+		join(threads);
+
+		for (var error : errors) {
+			if (error instanceof RuntimeException) {
+				throw (RuntimeException) error;
+			}
+
+			if (error instanceof Error) {
+				throw (Error) error;
+			}
+		}
+
+		return results;
+	}
+
+	private static final void checkConcurrency(int maxConcurrency) {
+		if (maxConcurrency <= 0) {
+			throw new IllegalArgumentException("non-positive concurrency: " + maxConcurrency);
+		}
+	}
+
+	private static final void checkCharset(Charset charset) {
+		if (!Arrays.equals("\n".getBytes(charset), new byte[] { '\n' })) {
+			throw new IllegalArgumentException("unsupported charset: " + charset);
+		}
+	}
+
+	private static final void checkPositive(int value, String name) {
+		if (value <= 0) {
+			throw new IllegalArgumentException("non-positive " + name + ": " + value);
+		}
+	}
+
+	private static final ExecutorService newDaemonPool(int size, String name) {
+		return Executors.newFixedThreadPool(size, runnable -> {
+			var thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static final RuntimeException unchecked(Throwable cause) {
+		if (cause instanceof RuntimeException) {
+			return (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return new IllegalStateException(cause);
+	}
+
+	private static final void join(List<Thread> threads) {
+		try {
+			for (var thread : threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		}
+	}
+
+	private static final void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static final void writeBinaryHeader(FileChannel channel, byte layout, long count) throws IOException {
+		var header = ByteBuffer.allocate(BINARY_HEADER).putInt(BINARY_MAGIC).put(layout).position(8).putLong(count).flip();
+
+		while (header.hasRemaining()) {
+			channel.write(header, header.position());
+		}
+	}
+
+	static final long readBinaryHeader(FileChannel channel, byte layout) throws IOException {
+		var header = ByteBuffer.allocate(BINARY_HEADER);
+
+		while (header.hasRemaining()) {
+			if (channel.read(header, header.position()) < 0) {
+				break;
+			}
+		}
+
+		if (header.hasRemaining() || header.getInt(0) != BINARY_MAGIC) {
+			throw new IllegalStateException("not a binary file");
+		}
+
+		if (header.get(4) != layout) {
+			throw new IllegalStateException("layout mismatch");
+		}
+
+		return header.getLong(8);
+	}
+
 	public final boolean sequenceEqual(Linq<T> right) {
 		try (var _right = right.fetch();
 				var _left = fetch()) {
@@ -2170,18 +8051,22 @@ public class Linq<T> {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	public final long sum(Function<T, Long> func) {
 		try (var fetch = fetch()) {
+			var batch = new Object[FETCH_BATCH];
 			var result = 0L;
 
 			while (true) {
-				var current = fetch.next();
+				var size = fetch.nextBatch(batch);
 
-				if (!current.exists()) {
+				if (size == 0) {
 					return result;
 				}
 
-				result += func.apply(current.value());
+				for (var i = 0; i < size; i++) {
+					result += func.apply((T) batch[i]);
+				}
 			}
 		}
 	}
@@ -2216,6 +8101,132 @@ public class Linq<T> {
 		}
 	}
 
+	public final AsyncLinq<T> toAsync() {
+		return AsyncLinq.of(() -> new AsyncAdapterFetch<T>(fetch()));
+	}
+
+	public final WriteResult toBinaryFile(Path path, BinaryCodec<? super T> codec) {
+		try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+				var fetch = fetch()) {
+			var buffer = ByteBuffer.allocateDirect(1 << 16);
+			var count = 0L;
+			writeBinaryHeader(channel, BINARY_ROWS, 0L);
+			channel.position(BINARY_HEADER);
+
+			while (true) {
+				var current = fetch.next();
+
+				if (!current.exists()) {
+					break;
+				}
+
+				while (true) {
+					var position = buffer.position();
+
+					try {
+						codec.write(current.value(), buffer);
+						break;
+					} catch (BufferOverflowException e) {
+						buffer.position(position);
+
+						if (position == 0) {
+							buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+						} else {
+							writeFully(channel, buffer.flip());
+							buffer.clear();
+						}
+					}
+				}
+
+				count++;
+			}
+
+			writeFully(channel, buffer.flip());
+			var size = channel.size();
+			writeBinaryHeader(channel, BINARY_ROWS, count);
+			return new WriteResult(count, size);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public final WriteResult toBinaryFile(Path path, BinaryColumns<T> columns) {
+		try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+				var fetch = fetch()) {
+			var block = ByteBuffer.allocate(Integer.BYTES + BinaryColumns.BLOCK_ROWS * columns.rowWidth());
+			var rows = 0;
+			var count = 0L;
+			writeBinaryHeader(channel, BINARY_COLUMNS, 0L);
+			channel.position(BINARY_HEADER);
+			var types = columns.types();
+			writeFully(channel, ByteBuffer.allocate(Integer.BYTES + types.length).putInt(types.length).put(types).flip());
+
+			while (true) {
+				var current = fetch.next();
+
+				if (!current.exists()) {
+					break;
+				}
+
+				columns.put(current.value(), block, rows++);
+				count++;
+
+				if (rows == BinaryColumns.BLOCK_ROWS) {
+					columns.writeBlock(channel, block, rows);
+					rows = 0;
+				}
+			}
+
+			if (rows > 0) {
+				columns.writeBlock(channel, block, rows);
+			}
+
+			var size = channel.size();
+			writeBinaryHeader(channel, BINARY_COLUMNS, count);
+			return new WriteResult(count, size);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public final WriteResult toChannel(WritableByteChannel channel, Function<T, ? extends CharSequence> formatter) {
+		return toChannel(channel, formatter, StandardCharsets.UTF_8, 1 << 16, false);
+	}
+
+	public final WriteResult toChannel(WritableByteChannel channel, Function<T, ? extends CharSequence> formatter,
+			Charset charset, int bufferSize, boolean background) {
+		if (bufferSize < Math.ceil(charset.newEncoder().maxBytesPerChar())) {
+			throw new IllegalArgumentException("bufferSize");
+		}
+
+		var sink = new ChannelSink(channel, charset, bufferSize, background);
+
+		try (var fetch = fetch()) {
+			while (true) {
+				var current = fetch.next();
+
+				if (!current.exists()) {
+					break;
+				}
+
+				sink.write(formatter.apply(current.value()));
+			}
+		} catch (RuntimeException | Error e) {
+			try {
+				sink.close();
+			} catch (RuntimeException | Error suppressed) {
+				e.addSuppressed(suppressed);
+			}
+
+			throw e;
+		}
+
+		sink.close();
+		return new WriteResult(sink.records(), sink.bytes());
+	}
+
 	public final <K> LinkedHashMap<K, T> toDictionary(Function<T, K> keyFactory) {
 		try (var fetch = fetch()) {
 			var map = new LinkedHashMap<K, T>();
@@ -2238,6 +8249,19 @@ public class Linq<T> {
 		}
 	}
 
+	public final WriteResult toFile(Path path, Function<T, ? extends CharSequence> formatter) {
+		return toFile(path, formatter, false);
+	}
+
+	public final WriteResult toFile(Path path, Function<T, ? extends CharSequence> formatter, boolean background) {
+		try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE)) {
+			return toChannel(channel, formatter, StandardCharsets.UTF_8, 1 << 16, background);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 	public final LinkedHashSet<T> toHashSet() {
 		try (var fetch = fetch()) {
 			var set = new LinkedHashSet<T>();
@@ -2254,18 +8278,22 @@ public class Linq<T> {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
 	public final ArrayList<T> toList() {
 		try (var fetch = fetch()) {
+			var batch = new Object[FETCH_BATCH];
 			var list = new ArrayList<T>();
 
 			while (true) {
-				var current = fetch.next();
+				var size = fetch.nextBatch(batch);
 
-				if (!current.exists()) {
+				if (size == 0) {
 					return list;
 				}
 
-				list.add(current.value());
+				for (var i = 0; i < size; i++) {
+					list.add((T) batch[i]);
+				}
 			}
 		}
 	}
@@ -2294,4 +8322,59 @@ public class Linq<T> {
 		}
 	}
 
+	public final Flow.Publisher<T> toPublisher() {
+		return new FetchPublisher<T>(this);
+	}
+
+	public final TableLinq<T> toTable(TableColumns<T> columns) {
+		try (var fetch = fetch()) {
+			return columns.load(fetch);
+		}
+	}
+
+	public final WriteResult toWriter(Writer writer, Function<T, ? extends CharSequence> formatter) {
+		return toWriter(writer, formatter, 1 << 13);
+	}
+
+	public final WriteResult toWriter(Writer writer, Function<T, ? extends CharSequence> formatter, int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("bufferSize");
+		}
+
+		var builder = new StringBuilder(bufferSize + 64);
+		var chars = new char[0];
+		var records = 0L;
+		var size = 0L;
+
+		try (var fetch = fetch()) {
+			while (true) {
+				var current = fetch.next();
+
+				if (current.exists()) {
+					builder.append(formatter.apply(current.value())).append('\n');
+					records++;
+				}
+
+				if (builder.length() >= bufferSize || (!current.exists() && builder.length() > 0)) {
+					if (chars.length < builder.length()) {
+						chars = new char[builder.capacity()];
+					}
+
+					var length = builder.length();
+					builder.getChars(0, length, chars, 0);
+					writer.write(chars, 0, length);
+					builder.setLength(0);
+					size += length;
+				}
+
+				if (!current.exists()) {
+					writer.flush();
+					return new WriteResult(records, size);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 }
@@ -0,0 +1,97 @@
+package linq;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+import org.junit.Test;
+
+public class AllocationTest {
+
+	private static final int SIZE = 100000;
+	private static final int WARMUP = 50;
+	private static final int RUNS = 20;
+	private static final long QUERY_BUDGET = 16 * 1024;
+	private static final long BOX_BUDGET = 24;
+
+	private static final Integer[] VALUES = Linq.range(0, SIZE).toArray(new Integer[0]);
+	private static final int[] INTS = Linq.range(0, SIZE).select(x -> x.intValue()).toList().stream()
+			.mapToInt(x -> x).toArray();
+
+	private static long allocated(LongSupplier query) {
+		assumeTrue("jdk.management is unavailable", ModuleLayer.boot().findModule("jdk.management").isPresent());
+		var bean = ManagementFactory.getThreadMXBean();
+		assumeTrue("com.sun.management.ThreadMXBean is unavailable", bean instanceof com.sun.management.ThreadMXBean);
+		var threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue("thread allocation accounting is disabled",
+				threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+		var thread = Thread.currentThread().getId();
+		var result = 0L;
+
+		for (var i = 0; i < WARMUP; i++) {
+			result += query.getAsLong();
+		}
+
+		var start = threads.getThreadAllocatedBytes(thread);
+
+		for (var i = 0; i < RUNS; i++) {
+			result += query.getAsLong();
+		}
+
+		var bytes = threads.getThreadAllocatedBytes(thread) - start;
+		assertTrue(result != Long.MIN_VALUE);
+		return bytes / RUNS;
+	}
+
+	private static void assertBudget(long budget, LongSupplier query) {
+		var bytes = allocated(query);
+		assertTrue("allocated " + bytes + " bytes per query, budget " + budget, bytes <= budget);
+	}
+
+	@Test
+	public void testWhere() {
+		assertBudget(QUERY_BUDGET, () -> Linq.from(VALUES).where(x -> (x & 1) == 0).count());
+	}
+
+	@Test
+	public void testSelect() {
+		assertBudget(QUERY_BUDGET + SIZE * BOX_BUDGET, () -> Linq.from(VALUES).select(x -> x * 2).count());
+	}
+
+	@Test
+	public void testWhereSelectSum() {
+		assertBudget(QUERY_BUDGET + SIZE / 3 * 2 * BOX_BUDGET, () -> Linq.from(VALUES)
+				.where(x -> x % 3 == 0)
+				.select(x -> x * 2)
+				.sum(x -> (long) x));
+	}
+
+	@Test
+	public void testSkipTake() {
+		assertBudget(QUERY_BUDGET, () -> Linq.from(VALUES).skip(10).take(SIZE / 2).where(x -> x > 0).count());
+	}
+
+	@Test
+	public void testCompile() {
+		assertBudget(QUERY_BUDGET + SIZE * BOX_BUDGET, () -> Linq.from(VALUES)
+				.where(x -> x > 10)
+				.skip(5)
+				.select(x -> x + 1)
+				.compile()
+				.count());
+	}
+
+	@Test
+	public void testToList() {
+		assertBudget(SIZE * 24L, () -> Linq.from(VALUES).where(x -> x >= 0).toList().size());
+	}
+
+	@Test
+	public void testPrimitive() {
+		assertBudget(1024, () -> Linq.ints(INTS).whereGreaterThan(10).sum());
+		assertBudget(1024, () -> Linq.ints(INTS).whereBetween(10, 1000).rowCount());
+	}
+
+}
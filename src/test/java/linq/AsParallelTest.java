@@ -0,0 +1,105 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import linq.Linq.Line;
+
+public class AsParallelTest {
+
+	private static Path write(String content) throws IOException {
+		var path = Files.createTempFile("linq", ".txt");
+		path.toFile().deleteOnExit();
+		Files.writeString(path, content, StandardCharsets.UTF_8);
+		return path;
+	}
+
+	private static Path numbers(int count) throws IOException {
+		var builder = new StringBuilder();
+
+		for (var i = 0; i < count; i++) {
+			builder.append(i).append('\n');
+		}
+
+		return write(builder.toString());
+	}
+
+	@Test
+	public void testCount() throws IOException {
+		var path = numbers(10000);
+		assertEquals(5000, Linq.lines(path).asParallel(4)
+				.where(x -> x.charAt(x.length() - 1) % 2 == 0)
+				.count());
+	}
+
+	@Test
+	public void testToList() throws IOException {
+		var path = numbers(10000);
+		var expected = Linq.lines(path).select(Line::toString).toList();
+		var actual = Linq.lines(path).asParallel(4).select(Line::toString).toList();
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testUnordered() throws IOException {
+		var path = numbers(1000);
+		var actual = Linq.lines(path).asParallel(3).select(x -> Integer.parseInt(x.toString())).toListUnordered();
+		assertEquals(1000, actual.size());
+		assertEquals(1000, new HashSet<Integer>(actual).size());
+	}
+
+	@Test
+	public void testSum() throws IOException {
+		var path = numbers(1000);
+		assertEquals(499500L, Linq.lines(path).asParallel(2).sum(x -> Long.parseLong(x.toString())));
+	}
+
+	@Test
+	public void testForEach() throws IOException {
+		var path = numbers(1000);
+		var sum = new AtomicLong(0);
+		Linq.lines(path).asParallel(2).forEach(x -> sum.addAndGet(Long.parseLong(x.toString())));
+		assertEquals(499500L, sum.get());
+	}
+
+	@Test
+	public void testPartitions() throws IOException {
+		var path = write("a\nbb\nccc\ndddd\n");
+		var partitions = Linq.lines(path).asParallel(2).partitions();
+		assertTrue(partitions.size() > 1);
+		var lines = Linq.from(partitions).selectMany(x -> x.select(Line::toString)).toList();
+		assertEquals(Arrays.asList("a", "bb", "ccc", "dddd"), lines);
+	}
+
+	@Test
+	public void testLongLine() throws IOException {
+		var path = write("a\n" + "b".repeat(100) + "\nc");
+		var lines = Linq.lines(path).asParallel(8).select(Line::toString).toList();
+		assertEquals(Arrays.asList("a", "b".repeat(100), "c"), lines);
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		assertEquals(0, Linq.lines(write("")).asParallel(4).count());
+	}
+
+	@Test
+	public void testException() throws IOException {
+		var path = numbers(100);
+		assertThrows(NumberFormatException.class, () -> Linq.lines(path).asParallel(2)
+				.select(x -> Integer.parseInt(x + "x"))
+				.count());
+	}
+
+}
@@ -0,0 +1,132 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import linq.Linq.AsyncLinq;
+
+public class AsyncLinqTest {
+
+	private static <T> CompletableFuture<T> later(T value) {
+		return CompletableFuture.supplyAsync(() -> value,
+				CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testMoveNext() {
+		var fetch = Linq.from("a", "b").toAsync().fetch();
+		assertTrue(fetch.moveNextAsync().toCompletableFuture().join());
+		assertEquals("a", fetch.current());
+		assertTrue(fetch.moveNextAsync().toCompletableFuture().join());
+		assertEquals("b", fetch.current());
+		assertFalse(fetch.moveNextAsync().toCompletableFuture().join());
+	}
+
+	@Test
+	public void testOperators() {
+		var result = Linq.range(0, 20).toAsync()
+				.where(x -> x % 2 == 0)
+				.select(x -> x * 10)
+				.skip(2)
+				.take(3)
+				.toListAsync()
+				.toCompletableFuture()
+				.join();
+		assertEquals(Arrays.asList(40, 60, 80), result);
+	}
+
+	@Test
+	public void testSelectAwait() {
+		var result = Linq.range(0, 100).toAsync()
+				.selectAwait(x -> later(x + 1))
+				.where(x -> x > 95)
+				.toListAsync()
+				.toCompletableFuture()
+				.join();
+		assertEquals(Arrays.asList(96, 97, 98, 99, 100), result);
+	}
+
+	@Test
+	public void testSelectMany() {
+		var result = Linq.from(1, 2, 3).toAsync()
+				.selectMany(x -> Linq.repeat(x, x).toAsync())
+				.toListAsync()
+				.toCompletableFuture()
+				.join();
+		assertEquals(Arrays.asList(1, 2, 2, 3, 3, 3), result);
+	}
+
+	@Test
+	public void testConcat() {
+		var result = Linq.from(1, 2).toAsync()
+				.concat(Linq.from(3).toAsync().selectAwait(x -> later(x)))
+				.toListAsync()
+				.toCompletableFuture()
+				.join();
+		assertEquals(Arrays.asList(1, 2, 3), result);
+	}
+
+	@Test
+	public void testCount() {
+		assertEquals(100000L, Linq.range(0, 200000).toAsync()
+				.where(x -> x % 2 == 0)
+				.countAsync()
+				.toCompletableFuture()
+				.join()
+				.longValue());
+	}
+
+	@Test
+	public void testForEach() {
+		var executor = Executors.newSingleThreadExecutor();
+		try {
+			var list = new ArrayList<Integer>();
+			new AsyncLinq<Integer>(() -> Linq.range(0, 3).toAsync().fetch())
+					.selectAwait(x -> CompletableFuture.supplyAsync(() -> x, executor))
+					.forEachAsync(list::add)
+					.toCompletableFuture()
+					.join();
+			assertEquals(Arrays.asList(0, 1, 2), list);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testException() {
+		var future = Linq.range(0, 10).toAsync()
+				.selectAwait(x -> x == 5
+						? CompletableFuture.<Integer>failedFuture(new UnsupportedOperationException())
+						: later(x))
+				.countAsync()
+				.toCompletableFuture();
+		var e = assertThrows(CompletionException.class, () -> future.join());
+		assertTrue(e.getCause() instanceof UnsupportedOperationException);
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		linq.toAsync().fetch().close();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+	@Test
+	public void testCloseTake() {
+		var linq = CloseCountLinq.create();
+		linq.concat(Linq.from(2, 3)).toAsync().take(1).countAsync().toCompletableFuture().join();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
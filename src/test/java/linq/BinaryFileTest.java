@@ -0,0 +1,116 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import linq.Linq.BinaryCodec;
+import linq.Linq.BinaryColumns;
+import linq.Linq.BinaryFetch;
+import linq.Linq.Tuple2;
+
+public class BinaryFileTest {
+
+	private static Path temp() throws IOException {
+		var path = Files.createTempFile("linq", ".bin");
+		path.toFile().deleteOnExit();
+		return path;
+	}
+
+	private static BinaryColumns<Tuple2<Integer, Double>> columns() {
+		return new BinaryColumns<Tuple2<Integer, Double>>(x -> new Tuple2<Integer, Double>(x.getInt(0), x.getDouble(1)))
+				.intColumn(x -> x.value1)
+				.doubleColumn(x -> x.value2);
+	}
+
+	@Test
+	public void testRows() throws IOException {
+		var path = temp();
+		var result = Linq.range(0, 100).toBinaryFile(path, BinaryCodec.ints());
+		assertEquals(100, result.records);
+		assertEquals(16 + 400, result.size);
+		assertEquals(Linq.range(0, 100).toList(), Linq.fromBinaryFile(path, BinaryCodec.ints()).toList());
+	}
+
+	@Test
+	public void testStrings() throws IOException {
+		var path = temp();
+		var big = "x".repeat(100000);
+		Linq.from("a", "あいう", "", big).toBinaryFile(path, BinaryCodec.strings());
+		assertEquals(Arrays.asList("a", "あいう", "", big), Linq.fromBinaryFile(path, BinaryCodec.strings()).toList());
+	}
+
+	@Test
+	public void testTuple() throws IOException {
+		var path = temp();
+		var codec = BinaryCodec.tuple(BinaryCodec.longs(), BinaryCodec.strings());
+		var expected = Linq.range(0, 10).select(x -> new Tuple2<Long, String>((long) x, "v" + x)).toList();
+		Linq.from(expected).toBinaryFile(path, codec);
+		assertEquals(expected, Linq.fromBinaryFile(path, codec).toList());
+	}
+
+	@Test
+	public void testWindow() throws IOException {
+		var path = temp();
+		Linq.range(0, 1000).select(x -> "value" + x).toBinaryFile(path, BinaryCodec.strings());
+		var actual = Linq.of(() -> new BinaryFetch<String>(path, BinaryCodec.strings(), 64)).toList();
+		assertEquals(Linq.range(0, 1000).select(x -> "value" + x).toList(), actual);
+	}
+
+	@Test
+	public void testRecordTooLarge() throws IOException {
+		var path = temp();
+		Linq.from("x".repeat(100)).toBinaryFile(path, BinaryCodec.strings());
+		assertThrows(IllegalStateException.class,
+				() -> Linq.of(() -> new BinaryFetch<String>(path, BinaryCodec.strings(), 64)).toList());
+	}
+
+	@Test
+	public void testColumns() throws IOException {
+		var path = temp();
+		var expected = Linq.range(0, 10000).select(x -> new Tuple2<Integer, Double>(x, x / 2.0)).toList();
+		var result = Linq.from(expected).toBinaryFile(path, columns());
+		assertEquals(10000, result.records);
+		assertEquals(16 + 4 + 2 + 3 * 4 + 10000 * 12, result.size);
+		assertEquals(expected, Linq.fromBinaryFile(path, columns()).toList());
+	}
+
+	@Test
+	public void testColumnMismatch() throws IOException {
+		var path = temp();
+		Linq.range(0, 10).select(x -> new Tuple2<Integer, Double>(x, 0.0)).toBinaryFile(path, columns());
+		var other = new BinaryColumns<Integer>(x -> x.getInt(0)).intColumn(x -> x);
+		assertThrows(IllegalStateException.class, () -> Linq.fromBinaryFile(path, other).toList());
+		assertThrows(IllegalStateException.class, () -> Linq.fromBinaryFile(path, BinaryCodec.ints()).toList());
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		var path = temp();
+		Linq.<Integer>empty().toBinaryFile(path, BinaryCodec.ints());
+		assertEquals(0, Linq.fromBinaryFile(path, BinaryCodec.ints()).count());
+		Linq.<Tuple2<Integer, Double>>empty().toBinaryFile(path, columns());
+		assertEquals(0, Linq.fromBinaryFile(path, columns()).count());
+	}
+
+	@Test
+	public void testNotBinary() throws IOException {
+		var path = temp();
+		Files.writeString(path, "text");
+		assertThrows(IllegalStateException.class, () -> Linq.fromBinaryFile(path, BinaryCodec.ints()).toList());
+	}
+
+	@Test
+	public void testClose() throws IOException {
+		var linq = CloseCountLinq.create();
+		linq.toBinaryFile(temp(), BinaryCodec.ints());
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
@@ -0,0 +1,87 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import linq.Linq.FusedFetch;
+
+public class CompileTest {
+
+	private static void assertSameBehavior(Function<Linq<Integer>, Linq<?>> query) {
+		var pulled = new AtomicInteger(0);
+		var source = Linq.range(0, 100).select(x -> {
+			pulled.incrementAndGet();
+			return x;
+		});
+		var expected = query.apply(source).toList();
+		var expectedPulled = pulled.getAndSet(0);
+		var actual = query.apply(source).compile().toList();
+		assertEquals(expected, actual);
+		assertEquals(expectedPulled, pulled.get());
+	}
+
+	@Test
+	public void testCompile() {
+		var linq = Linq.range(0, 10).where(x -> x % 2 == 0).select(x -> x * 10).compile();
+		assertTrue(linq.fetch() instanceof FusedFetch);
+		assertEquals(Arrays.asList(0, 20, 40, 60, 80), linq.toList());
+	}
+
+	@Test
+	public void testOperators() {
+		assertSameBehavior(x -> x.where(y -> y % 3 == 0).select(y -> y + 1).skip(2).take(5));
+		assertSameBehavior(x -> x.select(y -> (Object) (y % 2 == 0 ? y : "s" + y)).ofType(String.class).take(3));
+		assertSameBehavior(x -> x.<Number>cast().select(y -> y.intValue() * 2).where(y -> y > 50));
+		assertSameBehavior(x -> x.take(10).where(y -> false));
+		assertSameBehavior(x -> x.take(0).select(y -> y));
+		assertSameBehavior(x -> x.skip(90).take(20).skip(5));
+	}
+
+	@Test
+	public void testNotFused() {
+		var linq = Linq.range(0, 10).where(x -> true);
+		assertSame(linq, linq.compile());
+		var distinct = Linq.range(0, 10).distinct();
+		assertSame(distinct, distinct.compile());
+	}
+
+	@Test
+	public void testPartial() {
+		var linq = Linq.range(0, 10).reverse().where(x -> x > 5).select(x -> -x).compile();
+		assertEquals(Arrays.asList(-9, -8, -7, -6), linq.toList());
+	}
+
+	@Test
+	public void testPlan() {
+		var linq = Linq.range(0, 10).select(x -> x * 10).skip(2).take(3);
+		var compiled = linq.compile();
+		assertTrue(compiled.fetch() instanceof FusedFetch);
+		assertEquals("compile", compiled.plan().operator);
+		assertEquals(3, compiled.plan().size);
+		assertEquals("compile rows=3 streams\n" + linq.explain().replaceAll("(?m)^", "  "), compiled.explain());
+	}
+
+	@Test
+	public void testFuseAfterCompile() {
+		var linq = Linq.range(0, 20).where(x -> x % 2 == 0).select(x -> x * 10).compile().where(x -> x > 50);
+		assertEquals(Arrays.asList(60, 80, 100, 120, 140, 160, 180), linq.toList());
+		assertTrue(linq.explainAnalyze().contains(" FusedFetch in="));
+		assertEquals("where", linq.plan().operator);
+		assertEquals("compile", linq.plan().inputs.get(0).operator);
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		linq.where(x -> true).select(x -> x).take(1).compile().toList();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
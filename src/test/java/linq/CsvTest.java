@@ -0,0 +1,108 @@
+package linq;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import linq.Linq.CsvFetch;
+import linq.Linq.CsvRow;
+
+public class CsvTest {
+
+	private static Path write(String content) throws IOException {
+		var path = Files.createTempFile("linq", ".csv");
+		path.toFile().deleteOnExit();
+		Files.writeString(path, content, StandardCharsets.UTF_8);
+		return path;
+	}
+
+	@Test
+	public void testCsv() throws IOException {
+		var i = Linq.csv(write("a,b,c\r\n1,2,3\n")).select(CsvRow::toArray).iterator();
+		assertArrayEquals(new String[] { "a", "b", "c" }, i.next());
+		assertArrayEquals(new String[] { "1", "2", "3" }, i.next());
+		assertFalse(i.hasNext());
+	}
+
+	@Test
+	public void testQuote() throws IOException {
+		var row = Linq.csv(write("\"a,b\",\"say \"\"hi\"\"\",\"line\nbreak\",\n")).first();
+		assertEquals(4, row.fieldCount());
+		assertEquals("a,b", row.getString(0));
+		assertEquals("say \"hi\"", row.getString(1));
+		assertEquals("line\nbreak", row.getString(2));
+		assertEquals("", row.getString(3));
+	}
+
+	@Test
+	public void testTyped() throws IOException {
+		var row = Linq.csv(write("42,-7,9000000000,1.5,x")).first();
+		assertEquals(42, row.getInt(0));
+		assertEquals(-7, row.getInt(1));
+		assertEquals(9000000000L, row.getLong(2));
+		assertEquals(1.5, row.getDouble(3), 0.0);
+		assertThrows(NumberFormatException.class, () -> row.getInt(4));
+		assertThrows(NumberFormatException.class, () -> row.getInt(2));
+		assertThrows(IndexOutOfBoundsException.class, () -> row.getInt(5));
+	}
+
+	@Test
+	public void testWhere() throws IOException {
+		var path = write("id,name\n1,alice\n2,bob\n3,carol\n");
+		var names = Linq.csv(path)
+				.skip(1)
+				.where(x -> x.getInt(0) % 2 == 1)
+				.select(x -> x.getString(1))
+				.toList();
+		assertEquals(Arrays.asList("alice", "carol"), names);
+	}
+
+	@Test
+	public void testBatchedOperators() throws IOException {
+		var path = write("1,a\n2,b\n3,c\n");
+		assertEquals(Arrays.asList("a", "b", "c"), Linq.csv(path).skipWhile(x -> false).select(x -> x.getString(1)).toList());
+		assertEquals(2, Linq.csv(path).takeWhile(x -> true).where(x -> x.getInt(0) >= 2).count());
+		assertEquals(12L, Linq.csv(path).concat(Linq.csv(path)).sum(x -> x.getLong(0)));
+	}
+
+	@Test
+	public void testTsv() throws IOException {
+		var row = Linq.csv(write("a\tb,c\n"), '\t').first();
+		assertArrayEquals(new String[] { "a", "b,c" }, row.toArray());
+	}
+
+	@Test
+	public void testEmptyLine() throws IOException {
+		assertEquals(Arrays.asList(1, 1, 1), Linq.csv(write("a\n\nb\n")).select(CsvRow::fieldCount).toList());
+	}
+
+	@Test
+	public void testWindow() throws IOException {
+		var path = write("1,\"x\ny\"\n2,z\n3,w\n");
+		var result = Linq.of(() -> new CsvFetch(path, ',', StandardCharsets.UTF_8, 8))
+				.select(x -> x.getString(1))
+				.toList();
+		assertEquals(Arrays.asList("x\ny", "z", "w"), result);
+	}
+
+	@Test
+	public void testUnterminated() throws IOException {
+		var path = write("\"abc\n");
+		assertThrows(IllegalStateException.class, () -> Linq.csv(path).count());
+	}
+
+	@Test
+	public void testDelimiter() {
+		assertThrows(IllegalArgumentException.class, () -> Linq.csv(Path.of("x"), '"'));
+	}
+
+}
@@ -0,0 +1,61 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ExplainTest {
+
+	@Test
+	public void testExplain() {
+		var explain = Linq.range(0, 100).where(x -> x % 2 == 0).orderBy(x -> -x).take(5).explain();
+		assertEquals("top rows=? buffers sorted distinct\n"
+				+ "  where rows=? streams distinct\n"
+				+ "    range rows=100 streams distinct\n", explain);
+		assertEquals("top rows=5 buffers sorted distinct\n"
+				+ "  range rows=100 streams distinct\n", Linq.range(0, 100).orderBy(x -> -x).take(5).explain());
+	}
+
+	@Test
+	public void testExplainSizes() {
+		assertEquals("takeLast rows=3 buffers\n"
+				+ "  append rows=11 streams\n"
+				+ "    range rows=10 streams distinct\n", Linq.range(0, 10).append(10).takeLast(3).explain());
+		assertEquals("zip rows=2 streams\n"
+				+ "  from rows=2 streams\n"
+				+ "  range rows=5 streams distinct\n", Linq.from(1, 2).zip(Linq.range(0, 5)).explain());
+		assertEquals("chunk rows=4 streams\n"
+				+ "  range rows=10 streams distinct\n", Linq.range(0, 10).chunk(3).explain());
+		assertEquals("chunk rows=? streams\n"
+				+ "  range rows=10 streams distinct\n", Linq.range(0, 10).chunk(0).explain());
+	}
+
+	@Test
+	public void testExplainAnalyze() {
+		var analyze = Linq.range(0, 100).where(x -> x % 2 == 0).reverse().skip(10).explainAnalyze();
+		assertTrue(analyze.startsWith("skip rows=? streams distinct\n"));
+		assertTrue(analyze.contains("execution rows=40 "));
+		assertTrue(analyze.contains("\n  SkipFetch in=50 out=40 "));
+		assertTrue(analyze.contains("\n    ReverseFetch in=50 out=50 buffered=50 "));
+		assertTrue(analyze.contains("\n      WhereFetch in=100 out=50 "));
+		assertTrue(analyze.contains("\n        RangeFetch in=0 out=100 "));
+	}
+
+	@Test
+	public void testExplainAnalyzeJoin() {
+		var analyze = Linq.range(0, 10).except(Linq.range(0, 5)).explainAnalyze();
+		assertTrue(analyze.contains("execution rows=5 "));
+		assertTrue(analyze.contains("\n  ExceptFetch in=15 out=5 "));
+		assertFalse(Linq.FetchAnalysis.active());
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		linq.where(x -> true).reverse().explainAnalyze();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
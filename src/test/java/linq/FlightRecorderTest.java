@@ -0,0 +1,76 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecorderTest {
+
+	private static List<RecordedEvent> record(boolean enabled, Runnable runnable) throws Exception {
+		assertTrue(Linq.recordEvents());
+		var file = Files.createTempFile("linq", ".jfr");
+
+		try (var recording = new Recording()) {
+			if (enabled) {
+				recording.enable("linq.Query");
+				recording.enable("linq.Materialize");
+			}
+
+			recording.start();
+			runnable.run();
+			recording.stop();
+			recording.dump(file);
+			return Linq.from(RecordingFile.readAllEvents(file))
+					.where(x -> x.getEventType().getName().startsWith("linq."))
+					.toList();
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testQueryEvent() throws Exception {
+		var events = record(true, () -> Linq.range(0, 100).where(x -> x % 2 == 0).named("evens").toList());
+		var queries = Linq.from(events).where(x -> x.getEventType().getName().equals("linq.Query")).toList();
+		assertEquals(1, queries.size());
+		assertEquals("evens", queries.get(0).getString("query"));
+		assertEquals("WhereFetch", queries.get(0).getString("stage"));
+		assertEquals(100L, queries.get(0).getLong("pulled"));
+		assertEquals(50L, queries.get(0).getLong("emitted"));
+		assertFalse(Linq.FetchAnalysis.active());
+	}
+
+	@Test
+	public void testMaterializeEvent() throws Exception {
+		var events = record(true, () -> Linq.range(0, 100).reverse().named("reversed").first());
+		var materialize = Linq.from(events).where(x -> x.getEventType().getName().equals("linq.Materialize"))
+				.first();
+		assertEquals("ReverseFetch", materialize.getString("stage"));
+		assertEquals(100L, materialize.getLong("size"));
+		assertTrue(materialize.getLong("materialization") >= 0);
+	}
+
+	@Test
+	public void testDisabled() throws Exception {
+		var events = record(false, () -> Linq.range(0, 100).reverse().toList());
+		assertTrue(events.isEmpty());
+		assertFalse(Linq.FetchAnalysis.active());
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		var linq = CloseCountLinq.create();
+		record(true, () -> linq.where(x -> true).first());
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
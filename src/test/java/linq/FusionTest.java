@@ -0,0 +1,89 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import linq.Linq.SelectFetch;
+import linq.Linq.SelectWhereFetch;
+import linq.Linq.WhereFetch;
+
+public class FusionTest {
+
+	@Test
+	public void testWhereWhere() {
+		var linq = Linq.range(0, 20).where(x -> x % 2 == 0).where(x -> x % 3 == 0).where(x -> x > 0);
+		assertTrue(linq.fetch() instanceof WhereFetch);
+		assertEquals(Arrays.asList(6, 12, 18), linq.toList());
+	}
+
+	@Test
+	public void testSelectSelect() {
+		var linq = Linq.range(0, 3).select(x -> x + 1).select(x -> x * 10).select(x -> "v" + x);
+		assertTrue(linq.fetch() instanceof SelectFetch);
+		assertEquals(Arrays.asList("v10", "v20", "v30"), linq.toList());
+	}
+
+	@Test
+	public void testSelectWhere() {
+		var linq = Linq.range(0, 10).select(x -> x * 3).where(x -> x % 2 == 0).where(x -> x > 0);
+		assertTrue(linq.fetch() instanceof SelectWhereFetch);
+		assertEquals(Arrays.asList(6, 12, 18, 24), linq.toList());
+	}
+
+	@Test
+	public void testCastOfType() {
+		var linq = Linq.from("a", 1, "b", 2.0)
+				.where(x -> !"b".equals(x))
+				.<Object>cast()
+				.ofType(String.class)
+				.select(x -> x + "!");
+		assertEquals(Arrays.asList("a!"), linq.toList());
+		var numbers = Linq.range(0, 4).select(x -> (Object) (x % 2 == 0 ? x : "s")).ofType(Integer.class);
+		assertTrue(numbers.fetch() instanceof SelectWhereFetch);
+		assertEquals(Arrays.asList(0, 2), numbers.toList());
+	}
+
+	@Test
+	public void testOrder() {
+		var calls = new ArrayList<String>();
+		Linq.from(1, 2)
+				.where(x -> calls.add("where1:" + x))
+				.where(x -> calls.add("where2:" + x) && x > 1)
+				.select(x -> calls.add("select:" + x) ? x : x)
+				.where(x -> calls.add("where3:" + x))
+				.toList();
+		assertEquals(Arrays.asList("where1:1", "where2:1", "where1:2", "where2:2", "select:2", "where3:2"), calls);
+	}
+
+	@Test
+	public void testShortCircuit() {
+		var count = Linq.from(1, null, 3)
+				.where(x -> x != null)
+				.where(x -> x.intValue() > 1)
+				.count();
+		assertEquals(1, count);
+	}
+
+	@Test
+	public void testReuse() {
+		var base = Linq.range(0, 10).where(x -> x % 2 == 0);
+		var left = base.where(x -> x > 4);
+		var right = base.where(x -> x < 4);
+		assertEquals(Arrays.asList(6, 8), left.toList());
+		assertEquals(Arrays.asList(0, 2), right.toList());
+		assertEquals(5, base.count());
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		linq.where(x -> true).where(x -> true).select(x -> x).select(x -> x).where(x -> true).first();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
@@ -0,0 +1,96 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import linq.Linq.JsonLine;
+
+public class JsonLinesTest {
+
+	private static Path write(String content) throws IOException {
+		var path = Files.createTempFile("linq", ".jsonl");
+		path.toFile().deleteOnExit();
+		Files.writeString(path, content, StandardCharsets.UTF_8);
+		return path;
+	}
+
+	@Test
+	public void testJsonLines() throws IOException {
+		var path = write("{\"type\":\"a\",\"n\":1}\n\n{\"type\":\"b\",\"n\":2}\n{\"type\":\"a\",\"n\":3}\n");
+		var result = Linq.jsonLines(path)
+				.where(x -> x.getString("type").equals("a"))
+				.select(x -> x.getLong("n"))
+				.toList();
+		assertEquals(Arrays.asList(1L, 3L), result);
+	}
+
+	@Test
+	public void testBlankLines() throws IOException {
+		var path = write("{\"n\":1}\n  \t\n\r\n{\"n\":2}\n   \n");
+		assertEquals(Arrays.asList(1L, 2L), Linq.jsonLines(path).select(x -> x.getLong("n")).toList());
+	}
+
+	@Test
+	public void testTrailing() {
+		assertThrows(IllegalStateException.class, () -> new JsonLine("{\"n\":1} x").has("n"));
+		assertThrows(IllegalStateException.class, () -> new JsonLine("{}}").has("n"));
+		assertEquals(1L, new JsonLine("{\"n\":1}  ").getLong("n"));
+	}
+
+	@Test
+	public void testFields() {
+		var line = new JsonLine(" { \"s\" : \"x\\\"y\\u3042\", \"i\":-12, \"d\":1.5e1, \"b\":true, \"z\":null,"
+				+ " \"o\":{\"k\":[1,\"}\"]}, \"big\":12345678901234567890 } ");
+		assertEquals("x\"yあ", line.getString("s"));
+		assertEquals(-12, line.getInt("i"));
+		assertEquals(15.0, line.getDouble("d"), 0.0);
+		assertTrue(line.getBoolean("b"));
+		assertTrue(line.isNull("z"));
+		assertNull(line.getString("z"));
+		assertEquals("{\"k\":[1,\"}\"]}", line.getRaw("o"));
+		assertEquals(1.2345678901234567e19, line.getDouble("big"), 1e4);
+		assertThrows(NumberFormatException.class, () -> line.getLong("big"));
+		assertTrue(line.has("o"));
+		assertFalse(line.has("missing"));
+		assertThrows(NoSuchElementException.class, () -> line.getLong("missing"));
+	}
+
+	@Test
+	public void testToMap() {
+		var line = new JsonLine("{\"a\":[1,2.5,\"x\",false,null],\"b\":{\"c\":{}},\"d\":[]}");
+		var inner = new LinkedHashMap<String, Object>();
+		inner.put("c", new LinkedHashMap<String, Object>());
+		var expected = new LinkedHashMap<String, Object>();
+		expected.put("a", Arrays.asList(1L, 2.5, "x", false, null));
+		expected.put("b", inner);
+		expected.put("d", Arrays.asList());
+		assertEquals(expected, line.toMap());
+		assertEquals(Map.of("c", Map.of()), line.get("b"));
+	}
+
+	@Test
+	public void testEmptyObject() {
+		assertEquals(0, new JsonLine("{}").toMap().size());
+	}
+
+	@Test
+	public void testInvalid() {
+		assertThrows(IllegalStateException.class, () -> new JsonLine("[1]").has("a"));
+		assertThrows(IllegalStateException.class, () -> new JsonLine("{\"a\":1").has("a"));
+	}
+
+}
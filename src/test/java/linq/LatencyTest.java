@@ -0,0 +1,118 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import linq.Linq.LatencyHistogram;
+import linq.Linq.QueryLatency;
+
+public class LatencyTest {
+
+	@Test
+	public void testHistogram() {
+		var histogram = new LatencyHistogram();
+
+		for (var i = 1; i <= 10000; i++) {
+			histogram.record(i * 1000L);
+		}
+
+		var snapshot = histogram.snapshot();
+		assertEquals(10000, snapshot.count);
+		assertEquals(10000000L, snapshot.max);
+		assertEquals(5000500.0, snapshot.mean, 0.0);
+		assertEquals(5000000.0, snapshot.p50(), 5000000.0 / 64);
+		assertEquals(9900000.0, snapshot.p99(), 9900000.0 / 64);
+		assertEquals(9990000.0, snapshot.p999(), 9990000.0 / 64);
+		assertEquals(1000.0, snapshot.percentile(0.0), 1000.0 / 64);
+		assertEquals(10000000L, snapshot.percentile(100.0));
+		assertThrows(IllegalArgumentException.class, () -> snapshot.percentile(101.0));
+	}
+
+	@Test
+	public void testBuckets() {
+		for (var value : new long[] { 0L, 1L, 127L, 128L, 1000L, 123456789L, Long.MAX_VALUE }) {
+			var index = LatencyHistogram.index(value);
+			assertTrue(index < LatencyHistogram.BUCKETS);
+			assertTrue(LatencyHistogram.highest(index) >= value);
+			assertTrue(LatencyHistogram.highest(index) - value <= value / 64);
+		}
+	}
+
+	@Test
+	public void testReset() {
+		var histogram = new LatencyHistogram();
+		histogram.record(42L);
+		histogram.reset();
+		assertEquals(0, histogram.snapshot().count);
+		assertEquals(0L, histogram.snapshot().p99());
+	}
+
+	@Test
+	public void testNamed() {
+		assertNull(Linq.latency("latency-unused"));
+		var linq = Linq.range(0, 100).where(x -> x % 3 == 0).named("latency-named");
+		assertEquals(Arrays.asList(0, 3, 6), linq.take(3).toList());
+		assertEquals(34, linq.count());
+		assertEquals(0, linq.first().intValue());
+		assertEquals(3, Linq.latency("latency-named").count);
+		assertEquals(3, Linq.latencies().get("latency-named").count);
+		assertEquals("named", linq.plan().operator);
+	}
+
+	@Test
+	public void testLazy() {
+		var server = ManagementFactory.getPlatformMBeanServer();
+		var linq = Linq.range(0, 10).named("latency-lazy");
+		Linq.range(0, 10).named("latency-lazy");
+		assertNull(Linq.latency("latency-lazy"));
+		assertFalse(server.isRegistered(QueryLatency.objectName("latency-lazy")));
+		assertEquals(10, linq.count());
+		assertEquals(10, Linq.range(0, 10).named("latency-lazy").count());
+		assertTrue(server.isRegistered(QueryLatency.objectName("latency-lazy")));
+		assertEquals(2, Linq.latency("latency-lazy").count);
+	}
+
+	@Test
+	public void testExecutionOnly() throws Exception {
+		try (var fetch = Linq.from(1, 2, 3).named("latency-execution").fetch()) {
+			assertEquals(1, fetch.next().value().intValue());
+			Thread.sleep(100);
+			assertEquals(2, fetch.next().value().intValue());
+			assertEquals(3, fetch.next().value().intValue());
+			assertFalse(fetch.next().exists());
+		}
+
+		assertTrue(Linq.latency("latency-execution").max < 100000000L);
+	}
+
+	@Test
+	public void testJmx() throws Exception {
+		var linq = Linq.from(1, 2, 3).named("latency-jmx");
+		linq.toList();
+		linq.toList();
+		var server = ManagementFactory.getPlatformMBeanServer();
+		var name = QueryLatency.objectName("latency-jmx");
+		assertEquals(2L, server.getAttribute(name, "Count"));
+		assertEquals("latency-jmx", server.getAttribute(name, "Query"));
+		assertTrue((Long) server.getAttribute(name, "P99Nanos") > 0);
+		server.invoke(name, "reset", new Object[0], new String[0]);
+		assertEquals(0, Linq.latency("latency-jmx").count);
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		linq.where(x -> true).named("latency-close").first();
+		assertEquals(1, linq.getCloseCount());
+		assertEquals(1, Linq.latency("latency-close").count);
+	}
+
+}
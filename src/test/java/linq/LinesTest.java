@@ -0,0 +1,103 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import linq.Linq.Line;
+import linq.Linq.LinesFetch;
+
+public class LinesTest {
+
+	private static Path write(String content) throws IOException {
+		var path = Files.createTempFile("linq", ".txt");
+		path.toFile().deleteOnExit();
+		Files.writeString(path, content, StandardCharsets.UTF_8);
+		return path;
+	}
+
+	@Test
+	public void testLines() throws IOException {
+		var i = Linq.lines(write("a\r\nbc\n\ndef")).select(Line::toString).iterator();
+		assertEquals("a", i.next());
+		assertEquals("bc", i.next());
+		assertEquals("", i.next());
+		assertEquals("def", i.next());
+		assertFalse(i.hasNext());
+	}
+
+	@Test
+	public void testTrailingNewline() throws IOException {
+		assertEquals(Arrays.asList("a", "b"), Linq.lines(write("a\nb\n")).select(Line::toString).toList());
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		assertEquals(0, Linq.lines(write("")).count());
+	}
+
+	@Test
+	public void testCharSequence() throws IOException {
+		var line = Linq.lines(write("key=value\n")).first();
+		assertEquals(9, line.length());
+		assertEquals(9, line.byteLength());
+		assertEquals('=', line.charAt(3));
+		assertEquals("value", line.subSequence(4, 9).toString());
+		assertEquals(true, Pattern.compile("^key=").matcher(line).find());
+		assertEquals(9, line.asByteBuffer().remaining());
+	}
+
+	@Test
+	public void testMultiByte() throws IOException {
+		var line = Linq.lines(write("あいう\n")).first();
+		assertEquals(9, line.byteLength());
+		assertEquals(3, line.length());
+		assertEquals('い', line.charAt(1));
+		assertEquals("あいう", line.toString());
+	}
+
+	@Test
+	public void testWindow() throws IOException {
+		var path = write("one\ntwo\nthree\nfour\n");
+		var lines = Linq.of(() -> new LinesFetch(path, StandardCharsets.UTF_8, 7)).select(Line::toString).toList();
+		assertEquals(Arrays.asList("one", "two", "three", "four"), lines);
+	}
+
+	@Test
+	public void testLineTooLong() throws IOException {
+		var path = write("one\nthree\n");
+		assertThrows(IllegalStateException.class,
+				() -> Linq.of(() -> new LinesFetch(path, StandardCharsets.UTF_8, 4)).toList());
+	}
+
+	@Test
+	public void testCharset() {
+		assertThrows(IllegalArgumentException.class, () -> Linq.lines(Path.of("x"), StandardCharsets.UTF_16));
+	}
+
+	@Test
+	public void testNotFound() {
+		assertThrows(UncheckedIOException.class, () -> Linq.lines(Path.of("not-found")).count());
+	}
+
+	@Test
+	public void testClose() throws IOException {
+		var path = write("a\nb\n");
+		var fetch = Linq.lines(path).fetch();
+		fetch.next();
+		fetch.close();
+		Files.delete(path);
+		assertFalse(Files.exists(path));
+	}
+
+}
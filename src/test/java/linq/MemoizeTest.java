@@ -0,0 +1,174 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class MemoizeTest {
+
+	@Test
+	public void testMemoize() {
+		var count = new AtomicInteger(0);
+		var linq = Linq.from(1, 2, 3)
+				.select(x -> {
+					count.incrementAndGet();
+					return x * 10;
+				})
+				.memoize();
+		assertEquals(3, linq.count());
+		assertEquals(Arrays.asList(10, 20, 30), linq.toList());
+		assertEquals(3, count.get());
+	}
+
+	@Test
+	public void testStream() {
+		var linq = Linq.from(Stream.of("a", "b", "c")).memoize();
+		assertEquals(Arrays.asList("a", "b", "c"), linq.toList());
+		assertEquals(Arrays.asList("a", "b", "c"), linq.toList());
+		var partial = Linq.from(Stream.of(1, 2, 3)).memoize();
+		assertEquals(1, partial.first().intValue());
+		assertEquals(Arrays.asList(1, 2, 3), partial.toList());
+	}
+
+	@Test
+	public void testLazy() {
+		var count = new AtomicInteger(0);
+		var linq = Linq.range(0, 10)
+				.select(x -> {
+					count.incrementAndGet();
+					return x;
+				})
+				.memoize();
+		assertEquals(0, linq.first().intValue());
+		assertEquals(1, count.get());
+		assertEquals(1, linq.bufferedSize());
+		assertEquals(Arrays.asList(0), linq.take(1).toList());
+		assertEquals(1, count.get());
+		assertEquals(Arrays.asList(0, 1, 2), linq.take(3).toList());
+		assertEquals(3, count.get());
+		assertEquals(10, linq.count());
+		assertEquals(10, count.get());
+	}
+
+	@Test
+	public void testInterleave() {
+		var count = new AtomicInteger(0);
+		var linq = Linq.from(1, 2, 3)
+				.select(x -> {
+					count.incrementAndGet();
+					return x;
+				})
+				.memoize();
+		var i = linq.iterator();
+		var j = linq.iterator();
+		assertEquals(1, i.next().intValue());
+		assertEquals(1, j.next().intValue());
+		assertEquals(2, j.next().intValue());
+		assertEquals(2, i.next().intValue());
+		assertEquals(3, i.next().intValue());
+		assertFalse(i.hasNext());
+		assertEquals(3, j.next().intValue());
+		assertFalse(j.hasNext());
+		assertEquals(3, count.get());
+	}
+
+	@Test
+	public void testLimit() {
+		var count = new AtomicInteger(0);
+		var linq = Linq.from(1, 2, 3, 4)
+				.select(x -> {
+					count.incrementAndGet();
+					return x;
+				})
+				.memoize(2);
+		assertEquals(Arrays.asList(1, 2, 3, 4), linq.toList());
+		assertEquals(4, count.get());
+		assertEquals(2, linq.bufferedSize());
+		assertEquals(Arrays.asList(1, 2), linq.take(2).toList());
+		assertThrows(IllegalStateException.class, () -> linq.toList());
+		assertEquals(4, count.get());
+		var unbuffered = Linq.range(1, 2).memoize(0);
+		assertEquals(Arrays.asList(1, 2), unbuffered.toList());
+		assertThrows(IllegalStateException.class, () -> unbuffered.toList());
+		assertThrows(IllegalArgumentException.class, () -> Linq.range(0, 1).memoize(-1));
+	}
+
+	@Test
+	public void testRelease() {
+		var count = new AtomicInteger(0);
+		var linq = Linq.from(1, 2, 3)
+				.select(x -> {
+					count.incrementAndGet();
+					return x;
+				})
+				.memoize();
+		assertEquals(3, linq.count());
+		linq.release();
+		assertEquals(0, linq.bufferedSize());
+		assertEquals(3, linq.count());
+		assertEquals(6, count.get());
+	}
+
+	@Test
+	public void testConcurrent() throws InterruptedException {
+		var count = new AtomicInteger(0);
+		var linq = Linq.range(0, 10000)
+				.select(x -> {
+					count.incrementAndGet();
+					return x;
+				})
+				.memoize();
+		var sums = new long[4];
+		var threads = new Thread[sums.length];
+
+		for (var i = 0; i < threads.length; i++) {
+			var n = i;
+			threads[i] = new Thread(() -> sums[n] = linq.sum(x -> (long) x));
+			threads[i].start();
+		}
+
+		for (var thread : threads) {
+			thread.join();
+		}
+
+		for (var sum : sums) {
+			assertEquals(49995000L, sum);
+		}
+
+		assertEquals(10000, count.get());
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		var memoize = linq.memoize();
+		memoize.toList();
+		memoize.toList();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+	@Test
+	public void testPartialClose() {
+		var linq = CloseCountLinq.create();
+		var memoize = linq.take(1).memoize();
+		memoize.first();
+		assertEquals(0, linq.getCloseCount());
+		memoize.release();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+	@Test
+	public void testPlan() {
+		var plan = Linq.range(0, 10).memoize().plan();
+		assertEquals("memoize", plan.operator);
+		assertEquals(10, plan.size);
+		assertEquals("range", plan.inputs.get(0).operator);
+	}
+
+}
@@ -0,0 +1,138 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.StandardMBean;
+
+import org.junit.Test;
+
+import linq.Linq.JmxMetricsSink;
+import linq.Linq.QueryMetrics;
+import linq.Linq.QueryMetricsMXBean;
+import linq.Linq.StageMetrics;
+
+public class MetricsTest {
+
+	private static List<StageMetrics> record(Runnable runnable) {
+		var records = Collections.synchronizedList(new ArrayList<StageMetrics>());
+		Linq.instrument(records::add);
+
+		try {
+			runnable.run();
+		} finally {
+			Linq.instrument(null);
+		}
+
+		return records;
+	}
+
+	private static StageMetrics stage(List<StageMetrics> records, String stage) {
+		return Linq.from(records).where(x -> x.stage.equals(stage)).first();
+	}
+
+	@Test
+	public void testDisabled() {
+		assertNull(Linq.instrumentation());
+		assertEquals(5, Linq.range(0, 10).where(x -> x % 2 == 0).named("disabled").count());
+		assertFalse(Linq.FetchAnalysis.active());
+	}
+
+	@Test
+	public void testStages() {
+		var records = record(() -> assertEquals(Arrays.asList(0, 2, 4, 6, 8),
+				Linq.range(0, 10).where(x -> x % 2 == 0).named("evens").toList()));
+		assertEquals(2, records.size());
+		var where = stage(records, "WhereFetch");
+		assertEquals("evens", where.query);
+		assertEquals(10, where.pulled);
+		assertEquals(5, where.emitted);
+		assertEquals(1, where.closes);
+		var range = stage(records, "RangeFetch");
+		assertEquals(0, range.pulled);
+		assertEquals(10, range.emitted);
+		assertTrue(where.nanos >= range.nanos);
+	}
+
+	@Test
+	public void testBuffered() {
+		var records = record(() -> Linq.range(0, 100).reverse().take(3).named("reversed").toList());
+		var reverse = stage(records, "ReverseFetch");
+		assertEquals(100, reverse.buffered);
+		assertEquals(100, reverse.pulled);
+		assertEquals(3, stage(records, "TakeFetch").emitted);
+	}
+
+	@Test
+	public void testUnnamed() {
+		var records = record(() -> Linq.from(1, 2, 3).select(x -> x + 1).toList());
+		assertFalse(records.isEmpty());
+		assertNull(records.get(0).query);
+	}
+
+	@Test
+	public void testJmx() throws Exception {
+		var server = ManagementFactory.getPlatformMBeanServer();
+		var name = JmxMetricsSink.objectName("linq.test", "orders");
+
+		try (var sink = new JmxMetricsSink(server, "linq.test")) {
+			Linq.instrument(sink);
+			assertSame(sink, Linq.instrumentation());
+
+			try {
+				Linq.range(0, 10).where(x -> x > 2).named("orders").toList();
+				Linq.range(0, 10).where(x -> x > 2).named("orders").toList();
+			} finally {
+				Linq.instrument(null);
+			}
+
+			assertEquals(34L, server.getAttribute(name, "Emitted"));
+			assertEquals(20L, server.getAttribute(name, "Pulled"));
+			assertEquals(4L, server.getAttribute(name, "Stages"));
+			assertEquals(4L, server.getAttribute(name, "Closes"));
+			assertEquals("orders", server.getAttribute(name, "Query"));
+			assertEquals(34, sink.queries().get("orders").getEmitted());
+		}
+
+		assertFalse(server.isRegistered(name));
+	}
+
+	@Test
+	public void testJmxCollision() throws Exception {
+		var server = ManagementFactory.getPlatformMBeanServer();
+		var name = JmxMetricsSink.objectName("linq.test", "collision");
+		server.registerMBean(new StandardMBean(new QueryMetrics("stale"), QueryMetricsMXBean.class, true), name);
+
+		try (var sink = new JmxMetricsSink(server, "linq.test")) {
+			Linq.instrument(sink);
+
+			try {
+				assertEquals(3, Linq.range(0, 3).where(x -> true).named("collision").count());
+			} finally {
+				Linq.instrument(null);
+			}
+
+			assertEquals("collision", server.getAttribute(name, "Query"));
+		}
+
+		assertFalse(server.isRegistered(name));
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		var records = record(() -> linq.where(x -> true).named("close").first());
+		assertEquals(1, linq.getCloseCount());
+		assertEquals(1, stage(records, "WhereFetch").closes);
+	}
+
+}
@@ -0,0 +1,113 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class MulticastTest {
+
+	@Test
+	public void testMulticast() {
+		var count = new AtomicInteger(0);
+		var results = Linq.range(0, 1000)
+				.select(x -> {
+					count.incrementAndGet();
+					return x;
+				})
+				.multicast(
+						x -> x.where(y -> y % 2 == 0).count(),
+						x -> x.groupBy(y -> y % 3).count(),
+						x -> (long) x.max(Comparator.naturalOrder()));
+		assertEquals(Arrays.asList(500L, 3L, 999L), results);
+		assertEquals(1000, count.get());
+	}
+
+	@Test
+	public void testBuffer() {
+		var results = Linq.range(0, 1000).multicast(1,
+				x -> x.toList().size(),
+				x -> x.skip(10).toList().size());
+		assertEquals(Arrays.asList(1000, 990), results);
+	}
+
+	@Test
+	public void testEarlyExit() {
+		var count = new AtomicInteger(0);
+		var results = Linq.range(0, 1000)
+				.select(x -> {
+					count.incrementAndGet();
+					return x;
+				})
+				.multicast(1,
+						x -> x.first(),
+						x -> x.take(3).last());
+		assertEquals(Arrays.asList(0, 2), results);
+		assertEquals(true, count.get() < 1000);
+	}
+
+	@Test
+	public void testEmpty() {
+		var results = Linq.<Integer>empty().multicast(x -> x.count());
+		assertEquals(Arrays.asList(0L), results);
+	}
+
+	@Test
+	public void testBranchException() {
+		assertThrows(UnsupportedOperationException.class, () -> Linq.range(0, 1000).multicast(1,
+				x -> x.count(),
+				x -> {
+					throw new UnsupportedOperationException();
+				}));
+	}
+
+	@Test
+	public void testSourceException() {
+		assertThrows(UnsupportedOperationException.class, () -> Linq.range(0, 1000)
+				.select(x -> {
+					if (x == 500) {
+						throw new UnsupportedOperationException();
+					}
+					return x;
+				})
+				.multicast(x -> x.count()));
+	}
+
+	@Test
+	public void testSourceError() {
+		assertThrows(AssertionError.class, () -> Linq.range(0, 1000)
+				.select(x -> {
+					if (x == 500) {
+						throw new AssertionError();
+					}
+					return x;
+				})
+				.multicast(1, x -> x.count(), x -> x.count()));
+	}
+
+	@Test
+	public void testInvalidBufferSize() {
+		assertThrows(IllegalArgumentException.class, () -> Linq.range(0, 10).multicast(0, x -> x.count()));
+		assertThrows(IllegalArgumentException.class, () -> Linq.range(0, 10).multicast(-1, x -> x.count()));
+	}
+
+	@Test
+	public void testNoBranches() {
+		var count = new AtomicInteger(0);
+		var results = Linq.range(0, 10).select(x -> count.incrementAndGet()).multicast();
+		assertEquals(0, results.size());
+		assertEquals(0, count.get());
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		linq.multicast(x -> x.count(), x -> x.count());
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
@@ -0,0 +1,116 @@
+package linq;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class NextBatchTest {
+
+	@Test
+	public void testArray() {
+		var fetch = Linq.from(1, 2, 3, 4, 5).fetch();
+		var batch = new Object[2];
+		assertEquals(2, fetch.nextBatch(batch));
+		assertArrayEquals(new Object[] { 1, 2 }, batch);
+		assertEquals(2, fetch.nextBatch(batch));
+		assertArrayEquals(new Object[] { 3, 4 }, batch);
+		assertEquals(1, fetch.nextBatch(batch));
+		assertEquals(5, batch[0]);
+		assertEquals(0, fetch.nextBatch(batch));
+		assertThrows(IllegalStateException.class, () -> fetch.nextBatch(batch));
+	}
+
+	@Test
+	public void testOffset() {
+		var fetch = Linq.range(0, 10).fetch();
+		var batch = new Object[5];
+		assertEquals(3, fetch.nextBatch(batch, 2, 3));
+		assertArrayEquals(new Object[] { null, null, 0, 1, 2 }, batch);
+	}
+
+	@Test
+	public void testPeek() {
+		var fetch = Linq.range(0, 3).fetch();
+		assertEquals(0, fetch.peek().value().intValue());
+		var batch = new Object[10];
+		assertEquals(1, fetch.nextBatch(batch));
+		assertEquals(0, batch[0]);
+		assertEquals(2, fetch.nextBatch(batch));
+		assertArrayEquals(new Object[] { 1, 2 }, Arrays.copyOf(batch, 2));
+	}
+
+	@Test
+	public void testElementAtATime() {
+		var fetch = Linq.from(Arrays.asList(1, 2, 3)).fetch();
+		var batch = new Object[2];
+		assertEquals(1, fetch.nextBatch(batch));
+		assertEquals(1, batch[0]);
+		assertEquals(1, fetch.nextBatch(batch));
+		assertEquals(1, fetch.nextBatch(batch));
+		assertEquals(3, batch[0]);
+		assertEquals(0, fetch.nextBatch(batch));
+	}
+
+	@Test
+	public void testOperators() {
+		var fetch = Linq.range(0, 1000)
+				.where(x -> x % 3 == 0)
+				.select(x -> (Object) (x * 2))
+				.ofType(Integer.class)
+				.<Number>cast()
+				.skip(10)
+				.take(5)
+				.fetch();
+		var batch = new Object[256];
+		var size = 0;
+
+		while (true) {
+			var count = fetch.nextBatch(batch, size, batch.length - size);
+
+			if (count == 0) {
+				break;
+			}
+
+			size += count;
+		}
+
+		assertArrayEquals(new Object[] { 60, 66, 72, 78, 84 }, Arrays.copyOf(batch, size));
+	}
+
+	@Test
+	public void testTakeLaziness() {
+		var pulled = new AtomicInteger(0);
+		var list = Linq.range(0, 1000)
+				.select(x -> {
+					pulled.incrementAndGet();
+					return x;
+				})
+				.where(x -> x % 2 == 1)
+				.take(3)
+				.toList();
+		assertEquals(Arrays.asList(1, 3, 5), list);
+		assertEquals(6, pulled.get());
+	}
+
+	@Test
+	public void testCount() {
+		assertEquals(500, Linq.range(0, 1000).where(x -> x % 2 == 0).count());
+		assertEquals(990, Linq.range(0, 1000).skip(10).count());
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		var fetch = linq.where(x -> true).select(x -> x).fetch();
+		var batch = new Object[4];
+		assertEquals(1, fetch.nextBatch(batch));
+		assertEquals(0, fetch.nextBatch(batch));
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
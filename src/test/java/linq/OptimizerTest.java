@@ -0,0 +1,100 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import linq.Linq.Tuple2;
+
+public class OptimizerTest {
+
+	@Test
+	public void testTopK() {
+		var linq = Linq.from(5, 3, 9, 1, 7, 3, 8, 2, 6, 4).orderBy(x -> x).take(4);
+		assertEquals("top", linq.plan().operator);
+		assertEquals(Arrays.asList(1, 2, 3, 3), linq.toList());
+		assertEquals(Arrays.asList(9999, 9989, 9979), Linq.range(0, 10000).orderByDescending(x -> x % 10)
+				.thenBy(x -> -x).take(3).toList());
+	}
+
+	@Test
+	public void testTopKStable() {
+		var values = Linq.range(0, 1000).select(x -> new Tuple2<Integer, Integer>(x % 7, x)).toList();
+		var expected = Linq.from(values).orderBy(x -> x.value1).toList().subList(0, 50);
+		assertEquals(expected, Linq.from(values).orderBy(x -> x.value1).take(50).toList());
+		assertEquals(0, Linq.from(values).orderBy(x -> x.value1).take(0).count());
+		assertEquals(1000, Linq.from(values).orderBy(x -> x.value1).take(5000).count());
+	}
+
+	@Test
+	public void testCountWithoutOrderBy() {
+		var keys = new AtomicInteger(0);
+		var linq = Linq.range(0, 100).orderBy(x -> {
+			keys.incrementAndGet();
+			return -x;
+		});
+		assertEquals(100, linq.count());
+		assertTrue(linq.any());
+		assertTrue(linq.contains(42));
+		assertFalse(linq.any(x -> x > 100));
+		assertEquals(100, linq.reverse().count());
+		assertEquals(0, keys.get());
+	}
+
+	@Test
+	public void testWherePushdown() {
+		var keys = new AtomicInteger(0);
+		var linq = Linq.range(0, 100).orderBy(x -> {
+			keys.incrementAndGet();
+			return -x;
+		}).where(x -> x % 10 == 0);
+		assertEquals("orderBy", linq.plan().operator);
+		assertEquals("where", linq.plan().inputs.get(0).operator);
+		assertEquals(Arrays.asList(90, 80, 70, 60, 50, 40, 30, 20, 10, 0), linq.toList());
+		assertTrue(keys.get() <= 40);
+		assertEquals(Arrays.asList(4, 2, 8, 6), Linq.from(1, 2, 3, 4).reverse().concat(Linq.from(5, 6, 7, 8).reverse())
+				.where(x -> x % 2 == 0).toList());
+	}
+
+	@Test
+	public void testReverseFirst() {
+		var linq = Linq.range(0, 10).reverse();
+		assertEquals(9, linq.first().intValue());
+		assertEquals(0, linq.last().intValue());
+		assertEquals(-1, Linq.<Integer>empty().reverse().firstOrDefault(-1).intValue());
+		assertEquals(-1, Linq.<Integer>empty().reverse().lastOrDefault(-1).intValue());
+		assertThrows(NoSuchElementException.class, () -> Linq.empty().reverse().first());
+	}
+
+	@Test
+	public void testDistinct() {
+		var groups = Linq.from("a", "bb", "cc", "d").groupBy(String::length);
+		assertSame(groups, groups.distinct());
+		var distinct = Linq.from(1, 1, 2).distinct();
+		assertSame(distinct, distinct.distinct());
+		var filtered = distinct.where(x -> true);
+		assertSame(filtered, filtered.distinct());
+		assertEquals(Arrays.asList(1, 2), Linq.from(1, 1, 2).select(x -> x).distinct().toList());
+	}
+
+	@Test
+	public void testPlan() {
+		var plan = Linq.range(0, 100).select(x -> x * 2).skip(10).take(20).plan();
+		assertEquals("take", plan.operator);
+		assertEquals(20, plan.size);
+		assertFalse(plan.distinct);
+		assertEquals(90, plan.inputs.get(0).size);
+		assertEquals(-1, Linq.range(0, 10).where(x -> true).plan().size);
+		assertEquals(5, Linq.from(1, 2).concat(Linq.from(Arrays.asList(3, 4, 5))).plan().size);
+		assertTrue(Linq.from(3, 1).orderBy(x -> x).where(x -> true).plan().sorted);
+	}
+
+}
@@ -0,0 +1,139 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class PipelinedTest {
+
+	@Test
+	public void testPipelined() {
+		var i = Linq.from("a", "b", "c").pipelined(2).iterator();
+		assertEquals("a", i.next());
+		assertEquals("b", i.next());
+		assertEquals("c", i.next());
+		assertFalse(i.hasNext());
+	}
+
+	@Test
+	public void testEmpty() {
+		assertEquals(0, Linq.empty().pipelined().count());
+	}
+
+	@Test
+	public void testStages() {
+		var threads = new HashSet<Thread>();
+		var result = Linq.range(0, 10000)
+				.select(x -> {
+					synchronized (threads) {
+						threads.add(Thread.currentThread());
+					}
+					return x * 2;
+				})
+				.pipelined(64)
+				.where(x -> {
+					synchronized (threads) {
+						threads.add(Thread.currentThread());
+					}
+					return x % 3 == 0;
+				})
+				.pipelined(64)
+				.select(x -> {
+					synchronized (threads) {
+						threads.add(Thread.currentThread());
+					}
+					return x + 1;
+				})
+				.toList();
+		assertEquals(3334, result.size());
+		assertEquals(Arrays.asList(1, 7, 13), result.subList(0, 3));
+		assertEquals(3, threads.size());
+	}
+
+	@Test
+	public void testTakeWhile() {
+		var result = Linq.range(0, 10000)
+				.pipelined(16)
+				.takeWhile(x -> x < 100)
+				.pipelined(16)
+				.toList();
+		assertEquals(100, result.size());
+		assertEquals(99, result.get(99).intValue());
+	}
+
+	@Test
+	public void testNull() {
+		assertEquals(Arrays.asList("a", null, "c"), Linq.from("a", null, "c").pipelined(2).toList());
+	}
+
+	@Test
+	public void testThread() {
+		var caller = Thread.currentThread();
+		assertNotEquals(caller, Linq.range(0, 3).select(x -> Thread.currentThread()).pipelined().first());
+	}
+
+	@Test
+	public void testException() {
+		var values = new int[1];
+		assertThrows(UnsupportedOperationException.class, () -> Linq.range(0, 10)
+				.select(x -> {
+					if (x == 5) {
+						throw new UnsupportedOperationException();
+					}
+					return x;
+				})
+				.pipelined(4)
+				.forEach(x -> values[0] = x));
+		assertEquals(4, values[0]);
+	}
+
+	@Test
+	public void testInterrupt() throws InterruptedException {
+		var producer = new Thread[1];
+		var started = new CountDownLatch(1);
+		var fetch = Linq.range(0, 1000)
+				.select(x -> {
+					producer[0] = Thread.currentThread();
+					started.countDown();
+					return x;
+				})
+				.pipelined(1)
+				.fetch();
+		assertEquals(0, fetch.next().value().intValue());
+		started.await();
+		producer[0].interrupt();
+		producer[0].join();
+		assertThrows(IllegalStateException.class, () -> {
+			while (fetch.next().exists()) {
+			}
+		});
+	}
+
+	@Test
+	public void testInvalidBatchSize() {
+		assertThrows(IllegalArgumentException.class, () -> Linq.range(0, 10).pipelined(0));
+		assertThrows(IllegalArgumentException.class, () -> Linq.range(0, 10).pipelined(-1));
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		linq.pipelined().iterator().close();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+	@Test
+	public void testCloseRunning() {
+		var linq = CloseCountLinq.create();
+		linq.pipelined().pipelined().first();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
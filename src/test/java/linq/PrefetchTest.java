@@ -0,0 +1,100 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class PrefetchTest {
+
+	@Test
+	public void testPrefetch() {
+		var i = Linq.from("a", "b", "c").prefetch(2).iterator();
+		assertEquals("a", i.next());
+		assertEquals("b", i.next());
+		assertEquals("c", i.next());
+		assertFalse(i.hasNext());
+	}
+
+	@Test
+	public void testLarge() {
+		assertEquals(49995000L, Linq.range(0, 10000).prefetch(16).sum(x -> (long) x));
+	}
+
+	@Test
+	public void testNull() {
+		assertEquals(Arrays.asList("a", null, "c"), Linq.from("a", null, "c").prefetch(1).toList());
+	}
+
+	@Test
+	public void testThread() {
+		var caller = Thread.currentThread();
+		var threads = Linq.range(0, 3).select(x -> Thread.currentThread()).prefetch(4).toList();
+		assertNotEquals(caller, threads.get(0));
+	}
+
+	@Test
+	public void testStream() {
+		var count = new AtomicInteger(0);
+		var stream = Stream.of(1, 2, 3).onClose(() -> count.incrementAndGet());
+		assertEquals(Arrays.asList(1, 2), Linq.from(stream).prefetch(1).take(2).toList());
+		assertEquals(1, count.get());
+	}
+
+	@Test
+	public void testException() {
+		assertThrows(UnsupportedOperationException.class, () -> Linq.range(0, 10)
+				.select(x -> {
+					if (x == 5) {
+						throw new UnsupportedOperationException();
+					}
+					return x;
+				})
+				.prefetch(2)
+				.toList());
+	}
+
+	@Test
+	public void testInterrupt() throws InterruptedException {
+		var producer = new Thread[1];
+		var started = new CountDownLatch(1);
+		var fetch = Linq.range(0, 1000)
+				.select(x -> {
+					producer[0] = Thread.currentThread();
+					started.countDown();
+					return x;
+				})
+				.prefetch(1)
+				.fetch();
+		assertEquals(0, fetch.next().value().intValue());
+		started.await();
+		producer[0].interrupt();
+		producer[0].join();
+		assertThrows(IllegalStateException.class, () -> {
+			while (fetch.next().exists()) {
+			}
+		});
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		linq.prefetch(1).iterator().close();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+	@Test
+	public void testCloseRunning() {
+		var linq = CloseCountLinq.create();
+		linq.prefetch(1).first();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
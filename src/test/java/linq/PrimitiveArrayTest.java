@@ -0,0 +1,100 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+public class PrimitiveArrayTest {
+
+	private static int[] values(int count) {
+		var array = new int[count];
+
+		for (var i = 0; i < count; i++) {
+			array[i] = i - count / 2;
+		}
+
+		return array;
+	}
+
+	@Test
+	public void testInts() {
+		var linq = Linq.ints(values(10001));
+		assertEquals(0L, linq.sum());
+		assertEquals(-5000, linq.min());
+		assertEquals(5000, linq.max());
+		assertEquals(10001, linq.rowCount());
+		assertEquals(10001, linq.count());
+	}
+
+	@Test
+	public void testIntsWhere() {
+		var linq = Linq.ints(values(10001)).whereGreaterThan(0).whereLessThan(101);
+		assertEquals(5050L, linq.sum());
+		assertEquals(1, linq.min());
+		assertEquals(100, linq.max());
+		assertEquals(100, linq.rowCount());
+		assertEquals(Linq.range(1, 100).toList(), linq.toList());
+	}
+
+	@Test
+	public void testIntsBounds() {
+		var linq = Linq.ints(Integer.MIN_VALUE, 0, Integer.MAX_VALUE);
+		assertEquals(0, linq.whereGreaterThan(Integer.MAX_VALUE).rowCount());
+		assertEquals(0, linq.whereLessThan(Integer.MIN_VALUE).rowCount());
+		assertEquals(Arrays.asList(0, Integer.MAX_VALUE), linq.whereBetween(0, Integer.MAX_VALUE).toList());
+		assertEquals(-1L, linq.sum());
+	}
+
+	@Test
+	public void testLongs() {
+		var linq = Linq.longs(5L, -3L, 10L, 7L);
+		assertEquals(19L, linq.sum());
+		assertEquals(-3L, linq.min());
+		assertEquals(10L, linq.max());
+		assertEquals(2, linq.whereBetween(5L, 7L).rowCount());
+		assertEquals(Arrays.asList(10L, 7L), linq.whereGreaterThan(5L).toList());
+	}
+
+	@Test
+	public void testDoubles() {
+		var linq = Linq.doubles(1.5, -2.0, 3.0, 0.5);
+		assertEquals(3.0, linq.sum(), 0.0);
+		assertEquals(-2.0, linq.min(), 0.0);
+		assertEquals(3.0, linq.max(), 0.0);
+		assertEquals(1, linq.whereGreaterThan(1.5).rowCount());
+		assertEquals(Arrays.asList(-2.0, 0.5), linq.whereLessThan(1.5).toList());
+		assertEquals(2.0, linq.whereBetween(0.5, 1.5).sum(), 0.0);
+	}
+
+	@Test
+	public void testDoublesBounds() {
+		var linq = Linq.doubles(Double.NEGATIVE_INFINITY, 1.0, Double.POSITIVE_INFINITY);
+		assertEquals(0, linq.whereGreaterThan(Double.POSITIVE_INFINITY).rowCount());
+		assertEquals(0, linq.whereGreaterThan(Double.POSITIVE_INFINITY).toList().size());
+		assertEquals(0, linq.whereLessThan(Double.NEGATIVE_INFINITY).rowCount());
+		assertEquals(0, linq.whereLessThan(Double.NEGATIVE_INFINITY).toList().size());
+		assertEquals(Arrays.asList(1.0, Double.POSITIVE_INFINITY), linq.whereGreaterThan(Double.NEGATIVE_INFINITY).toList());
+		assertEquals(Arrays.asList(Double.NEGATIVE_INFINITY, 1.0), linq.whereLessThan(Double.POSITIVE_INFINITY).toList());
+		assertEquals(0, linq.whereGreaterThan(Double.NaN).rowCount());
+		assertEquals(0, linq.whereLessThan(Double.NaN).toList().size());
+		assertEquals(0, linq.whereBetween(Double.NaN, 1.0).rowCount());
+	}
+
+	@Test
+	public void testEmpty() {
+		assertEquals(0L, Linq.ints().sum());
+		assertThrows(NoSuchElementException.class, () -> Linq.ints().min());
+		assertThrows(NoSuchElementException.class, () -> Linq.longs(1L).whereGreaterThan(1L).max());
+		assertThrows(NoSuchElementException.class, () -> Linq.doubles(1.0).whereLessThan(0.0).min());
+	}
+
+	@Test
+	public void testOperators() {
+		assertEquals(Arrays.asList(2, 4), Linq.ints(1, 2, 3, 4).where(x -> x % 2 == 0).toList());
+	}
+
+}
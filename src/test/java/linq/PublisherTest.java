@@ -0,0 +1,138 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PublisherTest {
+
+	static class RecordingSubscriber<T> implements Flow.Subscriber<T> {
+		final List<T> items = new ArrayList<T>();
+		Flow.Subscription subscription;
+		Throwable error;
+		boolean completed;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(T item) {
+			items.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			completed = true;
+		}
+	}
+
+	@Test
+	public void testToPublisher() {
+		var pulled = new AtomicInteger(0);
+		var subscriber = new RecordingSubscriber<Integer>();
+		Linq.range(0, 5)
+				.select(x -> {
+					pulled.incrementAndGet();
+					return x;
+				})
+				.toPublisher()
+				.subscribe(subscriber);
+		assertEquals(0, pulled.get());
+		subscriber.subscription.request(2);
+		assertEquals(Arrays.asList(0, 1), subscriber.items);
+		assertEquals(2, pulled.get());
+		assertFalse(subscriber.completed);
+		subscriber.subscription.request(10);
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4), subscriber.items);
+		assertTrue(subscriber.completed);
+	}
+
+	@Test
+	public void testToPublisherInvalidRequest() {
+		var subscriber = new RecordingSubscriber<Integer>();
+		Linq.range(0, 5).toPublisher().subscribe(subscriber);
+		subscriber.subscription.request(0);
+		assertTrue(subscriber.error instanceof IllegalArgumentException);
+	}
+
+	@Test
+	public void testToPublisherCancel() {
+		var linq = CloseCountLinq.create();
+		var subscriber = new RecordingSubscriber<Integer>();
+		linq.concat(Linq.from(2)).toPublisher().subscribe(subscriber);
+		subscriber.subscription.request(1);
+		subscriber.subscription.cancel();
+		subscriber.subscription.request(1);
+		assertEquals(Arrays.asList(1), subscriber.items);
+		assertEquals(1, linq.getCloseCount());
+		assertFalse(subscriber.completed);
+	}
+
+	@Test
+	public void testFromPublisher() {
+		var publisher = new SubmissionPublisher<Integer>();
+		var thread = new Thread(() -> {
+			while (publisher.getNumberOfSubscribers() == 0) {
+				Thread.onSpinWait();
+			}
+			for (var i = 0; i < 1000; i++) {
+				publisher.submit(i);
+			}
+			publisher.close();
+		});
+		thread.start();
+		var result = Linq.fromPublisher(publisher, 16).toList();
+		assertEquals(1000, result.size());
+		assertEquals(999, result.get(999).intValue());
+	}
+
+	@Test
+	public void testRoundTrip() {
+		var result = Linq.fromPublisher(Linq.range(0, 100).toPublisher(), 8).toList();
+		assertEquals(100, result.size());
+		assertEquals(99, result.get(99).intValue());
+	}
+
+	@Test
+	public void testFromPublisherError() {
+		var source = Linq.range(0, 10).select(x -> {
+			if (x == 5) {
+				throw new UnsupportedOperationException();
+			}
+			return x;
+		});
+		assertThrows(UnsupportedOperationException.class, () -> Linq.fromPublisher(source.toPublisher(), 4).toList());
+	}
+
+	@Test
+	public void testFromPublisherInvalidBufferSize() {
+		var publisher = Linq.range(0, 10).toPublisher();
+		assertThrows(IllegalArgumentException.class, () -> Linq.fromPublisher(publisher, 0));
+		assertThrows(IllegalArgumentException.class, () -> Linq.fromPublisher(publisher, -1));
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		Linq.fromPublisher(linq.concat(Linq.from(2, 3)).toPublisher(), 1).first();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
@@ -0,0 +1,117 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import linq.Linq.RecordsFetch;
+
+public class RecordsTest {
+
+	private static Path write(int count, ByteOrder order) throws IOException {
+		var buffer = ByteBuffer.allocate(count * 16).order(order);
+
+		for (var i = 0; i < count; i++) {
+			buffer.putInt(i);
+			buffer.putLong(i * 100L);
+			buffer.putFloat(i / 2f);
+		}
+
+		var path = Files.createTempFile("linq", ".bin");
+		path.toFile().deleteOnExit();
+		Files.write(path, buffer.array());
+		return path;
+	}
+
+	@Test
+	public void testRecords() throws IOException {
+		var path = write(3, ByteOrder.BIG_ENDIAN);
+		var i = Linq.records(path, 16).select(x -> x.getLong(4)).iterator();
+		assertEquals(0L, i.next().longValue());
+		assertEquals(100L, i.next().longValue());
+		assertEquals(200L, i.next().longValue());
+		assertFalse(i.hasNext());
+	}
+
+	@Test
+	public void testWhere() throws IOException {
+		var path = write(100, ByteOrder.LITTLE_ENDIAN);
+		var result = Linq.records(path, 16, ByteOrder.LITTLE_ENDIAN)
+				.where(x -> x.getInt(0) % 25 == 0)
+				.select(x -> x.getFloat(12))
+				.toList();
+		assertEquals(Arrays.asList(0f, 12.5f, 25f, 37.5f), result);
+	}
+
+	@Test
+	public void testBatchedOperators() throws IOException {
+		var path = write(10, ByteOrder.BIG_ENDIAN);
+		assertEquals(5, Linq.records(path, 16).takeWhile(x -> true).where(x -> x.getInt(0) >= 5).count());
+		assertEquals(Arrays.asList(0, 1, 2, 0, 1, 2), Linq.records(path, 16)
+				.take(3)
+				.concat(Linq.records(path, 16).take(3))
+				.select(x -> x.getInt(0))
+				.toList());
+		assertEquals(4200L, Linq.records(path, 16).skipWhile(x -> x.getInt(0) < 3).sum(x -> x.getLong(4)));
+		assertEquals(10, Linq.records(path, 16).concat(Linq.records(path, 16)).skipWhile(x -> false).distinctBy(x -> x.getInt(0)).count());
+	}
+
+	@Test
+	public void testFlyweight() throws IOException {
+		var path = write(2, ByteOrder.BIG_ENDIAN);
+		var fetch = Linq.records(path, 16).fetch();
+		var first = fetch.next().value();
+		var copy = first.copy();
+		var second = fetch.next().value();
+		assertSame(first, second);
+		assertEquals(1, second.getInt(0));
+		assertEquals(0, copy.getInt(0));
+		assertEquals(0L, copy.index());
+		assertEquals(1L, second.index());
+		fetch.close();
+	}
+
+	@Test
+	public void testWindow() throws IOException {
+		var path = write(10, ByteOrder.BIG_ENDIAN);
+		var result = Linq.of(() -> new RecordsFetch(path, 16, ByteOrder.BIG_ENDIAN, 40))
+				.select(x -> x.getInt(0))
+				.toList();
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), result);
+	}
+
+	@Test
+	public void testFieldBounds() throws IOException {
+		var path = write(1, ByteOrder.BIG_ENDIAN);
+		assertThrows(IndexOutOfBoundsException.class, () -> Linq.records(path, 16).first().getLong(12));
+	}
+
+	@Test
+	public void testTruncated() throws IOException {
+		var path = write(1, ByteOrder.BIG_ENDIAN);
+		assertThrows(IllegalStateException.class, () -> Linq.records(path, 10).count());
+	}
+
+	@Test
+	public void testInvalidRecordSize() {
+		assertThrows(IllegalArgumentException.class, () -> Linq.records(Path.of("x"), 0));
+		assertThrows(IllegalArgumentException.class, () -> Linq.records(Path.of("x"), -16, ByteOrder.LITTLE_ENDIAN));
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		var path = write(0, ByteOrder.BIG_ENDIAN);
+		assertEquals(0, Linq.records(path, 16).count());
+	}
+
+}
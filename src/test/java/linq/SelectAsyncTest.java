@@ -0,0 +1,112 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SelectAsyncTest {
+
+	private static <T> T sleep(T value, long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return value;
+	}
+
+	@Test
+	public void testSelectAsync() {
+		var i = Linq.from(1, 2, 3).selectAsync(x -> x * 10, 2).iterator();
+		assertEquals(10, i.next().intValue());
+		assertEquals(20, i.next().intValue());
+		assertEquals(30, i.next().intValue());
+		assertFalse(i.hasNext());
+	}
+
+	@Test
+	public void testOrder() {
+		var result = Linq.from(30, 20, 10, 0)
+				.selectAsync(x -> sleep(x, x), 4)
+				.toList();
+		assertEquals(Arrays.asList(30, 20, 10, 0), result);
+	}
+
+	@Test
+	public void testUnordered() {
+		var result = Linq.from(60, 0)
+				.selectAsyncUnordered(x -> sleep(x, x), 2)
+				.toList();
+		assertEquals(Arrays.asList(0, 60), result);
+	}
+
+	@Test
+	public void testConcurrency() {
+		var running = new AtomicInteger(0);
+		var peak = new AtomicInteger(0);
+		var result = Linq.range(0, 40)
+				.selectAsync(x -> {
+					peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+					sleep(x, 5);
+					running.decrementAndGet();
+					return x;
+				}, 4)
+				.count();
+		assertEquals(40, result);
+		assertTrue(peak.get() <= 4);
+		assertTrue(peak.get() > 1);
+	}
+
+	@Test
+	public void testTake() {
+		var count = new AtomicInteger(0);
+		var result = Linq.range(0, 1000)
+				.selectAsync(x -> {
+					count.incrementAndGet();
+					return x;
+				}, 4)
+				.take(2)
+				.toList();
+		assertEquals(Arrays.asList(0, 1), result);
+		assertTrue(count.get() <= 6);
+	}
+
+	@Test
+	public void testException() {
+		assertThrows(UnsupportedOperationException.class, () -> Linq.range(0, 10)
+				.selectAsync(x -> {
+					if (x == 5) {
+						throw new UnsupportedOperationException();
+					}
+					return x;
+				}, 2)
+				.toList());
+	}
+
+	@Test
+	public void testInvalidConcurrency() {
+		assertThrows(IllegalArgumentException.class, () -> Linq.range(0, 3).selectAsync(x -> x, 0));
+		assertThrows(IllegalArgumentException.class, () -> Linq.range(0, 3).selectAsyncUnordered(x -> x, -1));
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		linq.selectAsync(x -> x, 2).iterator().close();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+	@Test
+	public void testCloseUnordered() {
+		var linq = CloseCountLinq.create();
+		linq.selectAsyncUnordered(x -> x, 2).toList();
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
@@ -0,0 +1,158 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import linq.Linq.WriteResult;
+
+public class ToFileTest {
+
+	private static Path temp() throws IOException {
+		var path = Files.createTempFile("linq", ".txt");
+		path.toFile().deleteOnExit();
+		return path;
+	}
+
+	@Test
+	public void testToFile() throws IOException {
+		var path = temp();
+		var result = Linq.range(0, 3).toFile(path, x -> "line" + x);
+		assertEquals(new WriteResult(3, 18), result);
+		assertEquals(Arrays.asList("line0", "line1", "line2"), Files.readAllLines(path));
+	}
+
+	@Test
+	public void testToFileBackground() throws IOException {
+		var path = temp();
+		var result = Linq.range(0, 100000).toFile(path, x -> Integer.toString(x), true);
+		assertEquals(100000, result.records);
+		assertEquals(Files.size(path), result.size);
+		assertEquals(Linq.range(0, 100000).select(x -> Integer.toString(x)).toList(), Files.readAllLines(path));
+	}
+
+	@Test
+	public void testToFileTruncate() throws IOException {
+		var path = temp();
+		Files.writeString(path, "previous content\n");
+		Linq.from("a").toFile(path, x -> x);
+		assertEquals("a\n", Files.readString(path));
+	}
+
+	@Test
+	public void testToChannel() {
+		var output = new ByteArrayOutputStream();
+		var result = Linq.from("あ", "b").toChannel(Channels.newChannel(output), x -> x, StandardCharsets.UTF_8, 4, false);
+		assertEquals(new WriteResult(2, 6), result);
+		assertEquals("あ\nb\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testToChannelSmallBuffer() {
+		var output = new ByteArrayOutputStream();
+		var text = "x".repeat(100);
+		var result = Linq.repeat(text, 10).toChannel(Channels.newChannel(output), x -> x, StandardCharsets.UTF_8, 7, true);
+		assertEquals(new WriteResult(10, 1010), result);
+		assertEquals(1010, output.size());
+	}
+
+	@Test
+	public void testToChannelTinyBuffer() {
+		var output = new ByteArrayOutputStream();
+		var channel = Channels.newChannel(output);
+		assertThrows(IllegalArgumentException.class,
+				() -> Linq.from("あ").toChannel(channel, x -> x, StandardCharsets.UTF_8, 2, false));
+		assertThrows(IllegalStateException.class,
+				() -> Linq.from("\uD842\uDFB7").toChannel(channel, x -> x, StandardCharsets.UTF_8, 3, false));
+		var result = Linq.from("あい", "\uD842\uDFB7").toChannel(channel, x -> x, StandardCharsets.UTF_8, 4, false);
+		assertEquals(new WriteResult(2, 12), result);
+	}
+
+	@Test
+	public void testToChannelStatefulCharset() {
+		var charset = Charset.forName("ISO-2022-JP");
+		var output = new ByteArrayOutputStream();
+		Linq.from("あ", "い").toChannel(Channels.newChannel(output), x -> x, charset, 8, false);
+		assertEquals("あ\nい\n", new String(output.toByteArray(), charset));
+	}
+
+	@Test
+	public void testToChannelSuppressed() {
+		var channel = new WritableByteChannel() {
+			@Override
+			public int write(ByteBuffer src) throws IOException {
+				throw new IOException("closed");
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		var error = assertThrows(UnsupportedOperationException.class, () -> Linq.from("a", "b")
+				.toChannel(channel, x -> {
+					if (x.equals("b")) {
+						throw new UnsupportedOperationException();
+					}
+					return x;
+				}, StandardCharsets.UTF_8, 16, false));
+		assertEquals(1, error.getSuppressed().length);
+		assertEquals(UncheckedIOException.class, error.getSuppressed()[0].getClass());
+	}
+
+	@Test
+	public void testToWriter() {
+		var writer = new StringWriter();
+		var result = Linq.range(0, 1000).toWriter(writer, x -> Integer.toString(x), 16);
+		assertEquals(1000, result.records);
+		assertEquals(writer.toString().length(), result.size);
+		assertEquals("0\n1\n", writer.toString().substring(0, 4));
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		var path = temp();
+		assertEquals(new WriteResult(0, 0), Linq.<String>empty().toFile(path, x -> x, true));
+		assertEquals(0, Files.size(path));
+	}
+
+	@Test
+	public void testInvalidBufferSize() {
+		assertThrows(IllegalArgumentException.class, () -> Linq.from("a").toWriter(new StringWriter(), x -> x, 0));
+	}
+
+	@Test
+	public void testException() throws IOException {
+		var path = temp();
+		Files.delete(path);
+		Files.createDirectory(path);
+		assertThrows(UncheckedIOException.class, () -> Linq.from("a").toFile(path, x -> x));
+		Files.delete(path);
+	}
+
+	@Test
+	public void testClose() throws IOException {
+		var linq = CloseCountLinq.create();
+		linq.toFile(temp(), x -> Integer.toString(x), true);
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}
@@ -0,0 +1,113 @@
+package linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import linq.Linq.TableColumns;
+import linq.Linq.TableLinq;
+
+public class ToTableTest {
+
+	static final class Order {
+		final int id;
+		final long quantity;
+		final double price;
+		final String region;
+
+		Order(int id, long quantity, double price, String region) {
+			this.id = id;
+			this.quantity = quantity;
+			this.price = price;
+			this.region = region;
+		}
+	}
+
+	private static TableColumns<Order> columns(AtomicInteger created) {
+		return new TableColumns<Order>(x -> {
+			created.incrementAndGet();
+			return new Order(x.getInt(0), x.getLong(1), x.getDouble(2), x.getString(3));
+		})
+				.intColumn(x -> x.id)
+				.longColumn(x -> x.quantity)
+				.doubleColumn(x -> x.price)
+				.stringColumn(x -> x.region);
+	}
+
+	private static TableLinq<Order> orders(int count, AtomicInteger created) {
+		var regions = new String[] { "east", "west", "north" };
+		return Linq.range(0, count)
+				.select(x -> new Order(x, x % 10, x * 0.5, regions[x % 3]))
+				.toTable(columns(created));
+	}
+
+	@Test
+	public void testToTable() {
+		var created = new AtomicInteger(0);
+		var table = orders(10, created);
+		assertEquals(10, table.size());
+		assertEquals(0, created.get());
+		var list = table.toList();
+		assertEquals(10, list.size());
+		assertEquals(7, list.get(7).id);
+		assertEquals(7L, list.get(7).quantity);
+		assertEquals(3.5, list.get(7).price, 0.0);
+		assertEquals("west", list.get(7).region);
+	}
+
+	@Test
+	public void testWhere() {
+		var created = new AtomicInteger(0);
+		var ids = orders(10000, created)
+				.whereLong(1, x -> x == 3)
+				.whereString(3, "east"::equals)
+				.whereDouble(2, x -> x < 1000)
+				.select(x -> x.id)
+				.toList();
+		assertEquals(Arrays.asList(3, 33, 63, 93, 123, 153, 183), Linq.from(ids).take(7).toList());
+		assertEquals(ids.size(), created.get());
+		assertEquals(67, ids.size());
+	}
+
+	@Test
+	public void testRowCount() {
+		var created = new AtomicInteger(0);
+		var table = orders(5000, created);
+		assertEquals(2500, table.whereInt(0, x -> x % 2 == 0).rowCount());
+		assertEquals(0, table.whereString(3, "south"::equals).rowCount());
+		assertEquals(5000, table.rowCount());
+		assertEquals(0, created.get());
+	}
+
+	@Test
+	public void testImmutable() {
+		var table = orders(100, new AtomicInteger(0));
+		table.whereInt(0, x -> x < 10);
+		assertEquals(100, table.count());
+	}
+
+	@Test
+	public void testEmpty() {
+		var table = Linq.<Order>empty().toTable(columns(new AtomicInteger(0)));
+		assertEquals(0, table.size());
+		assertEquals(0, table.whereInt(0, x -> true).count());
+	}
+
+	@Test
+	public void testColumnType() {
+		var table = orders(10, new AtomicInteger(0));
+		assertThrows(IllegalArgumentException.class, () -> table.whereInt(1, x -> true));
+	}
+
+	@Test
+	public void testClose() {
+		var linq = CloseCountLinq.create();
+		linq.toTable(new TableColumns<Integer>(x -> x.getInt(0)).intColumn(x -> x));
+		assertEquals(1, linq.getCloseCount());
+	}
+
+}